@@ -0,0 +1,26 @@
+plugins {
+  `java-library`
+  alias(libs.plugins.jmh)
+}
+
+java {
+  sourceCompatibility = JavaVersion.toVersion(libs.versions.java.get())
+  targetCompatibility = JavaVersion.toVersion(libs.versions.java.get())
+}
+
+// Scroll engine has no Android dependencies, so it is compiled for a plain JVM straight from the library sources
+sourceSets {
+  main {
+    java {
+      srcDir("../wheel-picker/src/main/java")
+      include("com/minyushov/wheel/WheelScrollEngine.java")
+    }
+  }
+}
+
+jmh {
+  warmupIterations = 3
+  iterations = 5
+  fork = 1
+  resultFormat = "JSON"
+}
@@ -0,0 +1,89 @@
+package com.minyushov.wheel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path of {@link WheelScrollEngine}: per-frame position step, snapping and position lookups
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WheelScrollEngineBenchmark {
+  private static final int ITEM_HEIGHT = 96;
+  private static final int DRAWN_ITEM_COUNT = 9;
+  private static final int FRAME_COUNT = 64;
+
+  @Param({"10", "100000", "1000000"})
+  public int itemCount;
+
+  @Param({"false", "true"})
+  public boolean cyclic;
+
+  private final WheelScrollEngine engine = new WheelScrollEngine();
+  private final int[] frameOffsets = new int[FRAME_COUNT];
+  private int selectedPosition;
+
+  @Setup
+  public void setUp() {
+    engine.setItemHeight(ITEM_HEIGHT);
+    engine.setCyclic(cyclic);
+    selectedPosition = itemCount / 2;
+    engine.computeFlingLimits(selectedPosition, itemCount);
+
+    // Offsets of a fling decelerating over several screens
+    int offset = 0;
+    for (int i = 0; i < FRAME_COUNT; i++) {
+      offset -= (FRAME_COUNT - i) * ITEM_HEIGHT / 4;
+      frameOffsets[i] = engine.clampToFlingRange(offset);
+    }
+  }
+
+  /**
+   * What {@link WheelPicker} computes for each animation frame: current position and first drawn row
+   */
+  @Benchmark
+  public void frameStep(Blackhole blackhole) {
+    for (int offset : frameOffsets) {
+      int position = engine.computePosition(offset, selectedPosition, itemCount);
+      int first = engine.computeFirstDrawnPosition(offset, selectedPosition, DRAWN_ITEM_COUNT);
+      blackhole.consume(position);
+      blackhole.consume(first);
+    }
+  }
+
+  @Benchmark
+  public void snap(Blackhole blackhole) {
+    for (int offset : frameOffsets) {
+      blackhole.consume(engine.snap(offset, offset));
+    }
+  }
+
+  @Benchmark
+  public void resolveDrawnPositions(Blackhole blackhole) {
+    for (int offset : frameOffsets) {
+      int first = engine.computeFirstDrawnPosition(offset, selectedPosition, DRAWN_ITEM_COUNT);
+      for (int position = first; position < first + DRAWN_ITEM_COUNT; position++) {
+        blackhole.consume(engine.resolvePosition(position, itemCount));
+      }
+    }
+  }
+
+  @Benchmark
+  public void clickAndSelect(Blackhole blackhole) {
+    for (int offset : frameOffsets) {
+      int position = engine.computePosition(offset, selectedPosition, itemCount);
+      int clicked = engine.computeClickPosition(offset % 500, 0, position, itemCount);
+      blackhole.consume(engine.computeItemDifference(Math.max(clicked, 0), selectedPosition, itemCount));
+    }
+  }
+}
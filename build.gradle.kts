@@ -2,6 +2,7 @@ plugins {
   alias(libs.plugins.android.app) apply false
   alias(libs.plugins.android.lib) apply false
   alias(libs.plugins.kotlin.android) apply false
+  alias(libs.plugins.jmh) apply false
 }
 
 tasks.register<Delete>("clean") {
@@ -15,3 +15,4 @@ dependencyResolutionManagement {
 
 include(":wheel-picker")
 include(":sample")
+include(":benchmark")
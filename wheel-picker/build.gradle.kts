@@ -16,10 +16,23 @@ android {
     sourceCompatibility(libs.versions.java.get())
     targetCompatibility(libs.versions.java.get())
   }
+  testOptions {
+    unitTests {
+      isIncludeAndroidResources = true
+      all {
+        // FrameCostBenchmark is skipped unless requested with -PframeCostBenchmark
+        it.systemProperty("wheel.frameCostBenchmark", project.hasProperty("frameCostBenchmark"))
+        it.systemProperty("wheel.frameCostReport", layout.buildDirectory.file("reports/benchmark/frame-cost.json").get().asFile.path)
+      }
+    }
+  }
 }
 
 dependencies {
   implementation(libs.androidx.appcompat.resources)
+
+  testImplementation(libs.junit)
+  testImplementation(libs.robolectric)
 }
 
 mavenPublishing {
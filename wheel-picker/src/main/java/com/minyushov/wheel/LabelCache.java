@@ -0,0 +1,185 @@
+package com.minyushov.wheel;
+
+import android.graphics.Bitmap;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of resolved items, their labels and icons keyed by drawn position.
+ * Drawn position equals data position, except in cyclic mode where drawn positions keep growing past the end of data.
+ * Cache is direct-mapped and holds at least twice as many entries as drawn rows, so consecutive drawn positions never evict
+ * each other and steady-state scrolling reuses labels instead of rebuilding them.
+ * Icons are loaded asynchronously and are only referenced while their position stays in the cache.
+ */
+final class LabelCache {
+  private static final int MIN_CAPACITY = 32;
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  private int[] keys;
+  private int[] positions;
+  private WheelItem<?>[] items;
+  private String[] labels;
+  private Bitmap[] icons;
+  private boolean[] iconRequested;
+  private int mask;
+
+  LabelCache() {
+    allocate(MIN_CAPACITY);
+  }
+
+  /**
+   * Make sure that {@code count} consecutive positions can be cached at once
+   */
+  void ensureCapacity(int count) {
+    int capacity = Integer.highestOneBit(Math.max(count * 2, MIN_CAPACITY) - 1) << 1;
+    if (capacity > labels.length) {
+      allocate(capacity);
+    }
+  }
+
+  /**
+   * @param key
+   *   drawn position of item
+   * @param position
+   *   data position of item
+   */
+  WheelItem<?> getItem(WheelItemSource<?> source, int key, int position) {
+    return items[resolve(source, key, position)];
+  }
+
+  String getLabel(WheelItemSource<?> source, int key, int position) {
+    return labels[resolve(source, key, position)];
+  }
+
+  /**
+   * @return loaded icon of item with this {@code key} or null if item has no icon or it is not loaded yet
+   */
+  Bitmap getIcon(int key) {
+    int index = key & mask;
+    return keys[index] == key ? icons[index] : null;
+  }
+
+  /**
+   * @return true if item with this {@code key} has an icon which is neither loaded nor requested, item is marked as requested then
+   */
+  boolean requestIcon(WheelItemSource<?> source, int key, int position) {
+    int index = resolve(source, key, position);
+    if (icons[index] != null || iconRequested[index] || !items[index].hasIcon()) {
+      return false;
+    }
+    iconRequested[index] = true;
+    return true;
+  }
+
+  /**
+   * Apply loaded icon if this {@code key} still holds the same {@code item}
+   *
+   * @return true if icon was applied
+   */
+  boolean setIcon(int key, WheelItem<?> item, Bitmap icon) {
+    int index = key & mask;
+    if (keys[index] != key || items[index] != item) {
+      return false;
+    }
+    iconRequested[index] = false;
+    icons[index] = icon;
+    return icon != null;
+  }
+
+  void invalidate() {
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(positions, EMPTY);
+    Arrays.fill(items, null);
+    Arrays.fill(labels, null);
+    invalidateIcons();
+  }
+
+  /**
+   * Drop entries of items with data positions in [start, start + count)
+   */
+  void invalidate(int start, int count) {
+    for (int i = 0; i < keys.length; i++) {
+      if (positions[i] >= start && positions[i] < start + count) {
+        keys[i] = EMPTY;
+        positions[i] = EMPTY;
+        items[i] = null;
+        labels[i] = null;
+        icons[i] = null;
+        iconRequested[i] = false;
+      }
+    }
+  }
+
+  /**
+   * Move cached entries after inserting {@code count} items at {@code start}, only valid if keys are data positions
+   */
+  void onRangeInserted(int start, int count) {
+    move(start, count, 0);
+  }
+
+  /**
+   * Drop entries of removed items and move entries after them, only valid if keys are data positions
+   */
+  void onRangeRemoved(int start, int count) {
+    move(start + count, -count, count);
+  }
+
+  /**
+   * Shift positions which are not less than {@code start} by {@code shift} and drop {@code dropCount} positions before {@code start}.
+   * Icon requests in flight are dropped for moved entries, they are requested again by the next prefetch.
+   */
+  private void move(int start, int shift, int dropCount) {
+    int[] oldPositions = positions.clone();
+    WheelItem<?>[] oldItems = items.clone();
+    String[] oldLabels = labels.clone();
+    Bitmap[] oldIcons = icons.clone();
+    invalidate();
+
+    for (int i = 0; i < oldPositions.length; i++) {
+      int position = oldPositions[i];
+      if (position == EMPTY || (position >= start - dropCount && position < start)) {
+        continue;
+      }
+      if (position >= start) {
+        position += shift;
+      }
+      int index = position & mask;
+      keys[index] = position;
+      positions[index] = position;
+      items[index] = oldItems[i];
+      labels[index] = oldLabels[i];
+      icons[index] = oldIcons[i];
+    }
+  }
+
+  void invalidateIcons() {
+    Arrays.fill(icons, null);
+    Arrays.fill(iconRequested, false);
+  }
+
+  private int resolve(WheelItemSource<?> source, int key, int position) {
+    int index = key & mask;
+    if (keys[index] != key || positions[index] != position) {
+      WheelItem<?> item = source.getItem(position);
+      keys[index] = key;
+      positions[index] = position;
+      items[index] = item;
+      labels[index] = String.valueOf(item);
+      icons[index] = null;
+      iconRequested[index] = false;
+    }
+    return index;
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    positions = new int[capacity];
+    items = new WheelItem<?>[capacity];
+    labels = new String[capacity];
+    icons = new Bitmap[capacity];
+    iconRequested = new boolean[capacity];
+    mask = capacity - 1;
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(positions, EMPTY);
+  }
+}
@@ -0,0 +1,24 @@
+package com.minyushov.wheel;
+
+import java.util.List;
+
+/**
+ * {@link WheelItemSource} over an already materialized list of items
+ */
+final class ListItemSource<T> implements WheelItemSource<T> {
+  final List<WheelItem<T>> list;
+
+  ListItemSource(List<WheelItem<T>> list) {
+    this.list = list;
+  }
+
+  @Override
+  public int getSize() {
+    return list.size();
+  }
+
+  @Override
+  public WheelItem<T> getItem(int position) {
+    return list.get(position);
+  }
+}
@@ -0,0 +1,181 @@
+package com.minyushov.wheel;
+
+import android.graphics.Paint;
+
+/**
+ * {@link WheelItemSource} of integers from {@code min} to {@code max} with {@code step}, e.g. years or minutes.
+ * Source holds no per-item objects, so its memory is constant regardless of range size. {@link WheelPicker} formats
+ * values straight into a reused {@code char[]} for drawing. For decimal numbers maximum text width is computed from the
+ * widest digit glyph and the ends of the range instead of measuring every item, see {@link Formatter#isWidestAtEnds()}.
+ * Items are created only when requested through {@link #getItem(int)}, e.g. for selection listener.
+ */
+public final class NumberRangeSource implements WheelItemSource<Integer> {
+  /**
+   * Maximum count of chars {@link Formatter} may write
+   */
+  public static final int MAX_LENGTH = 32;
+
+  private static final char[] DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+
+  private final int min;
+  private final int step;
+  private final int size;
+  private final Formatter formatter;
+
+  public NumberRangeSource(int min, int max) {
+    this(min, max, 1);
+  }
+
+  public NumberRangeSource(int min, int max, int step) {
+    this(min, max, step, decimal(1));
+  }
+
+  /**
+   * @param formatter
+   *   writes drawn text of values, digits of it are assumed to be decimal digits when maximum width is computed.
+   *   Unless it is {@link Formatter#isWidestAtEnds() widest at ends}, every value is formatted once to find maximum width,
+   *   so such ranges should be short, e.g. months or weekdays.
+   */
+  public NumberRangeSource(int min, int max, int step, Formatter formatter) {
+    if (step <= 0) {
+      throw new IllegalArgumentException("Step must be positive, but it is " + step);
+    }
+    if (max < min) {
+      throw new IllegalArgumentException("Max " + max + " is less than min " + min);
+    }
+    this.min = min;
+    this.step = step;
+    this.size = (int) Math.min(Integer.MAX_VALUE, ((long) max - min) / step + 1);
+    this.formatter = formatter;
+  }
+
+  /**
+   * @return formatter of decimal numbers padded with leading zeros to at least {@code minDigits} digits, e.g. "07" for minutes
+   */
+  public static Formatter decimal(int minDigits) {
+    return new DecimalFormatter(minDigits);
+  }
+
+  @Override
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public WheelItem<Integer> getItem(int position) {
+    return new WheelItem<>(getValue(position));
+  }
+
+  public int getValue(int position) {
+    return (int) (min + (long) position * step);
+  }
+
+  /**
+   * @return position of {@code value}, or of the nearest value below it, clamped to the range
+   */
+  public int getPosition(int value) {
+    long position = ((long) value - min) / step;
+    return (int) Math.max(0, Math.min(size - 1, position));
+  }
+
+  /**
+   * Write drawn text of item with this {@code position} into {@code buffer} of at least {@link #MAX_LENGTH} chars
+   *
+   * @return count of written chars
+   */
+  int format(int position, char[] buffer) {
+    return formatter.format(getValue(position), buffer);
+  }
+
+  /**
+   * Compute maximum width of drawn text with digits measured as the widest digit glyph. Only the first and the last values
+   * are formatted if formatter is widest at ends, otherwise every value is.
+   *
+   * @param buffer
+   *   reused buffer of at least {@link #MAX_LENGTH} chars
+   */
+  int computeMaxWidth(Paint paint, char[] buffer) {
+    float digitWidth = 0;
+    for (int i = 0; i < DIGITS.length; i++) {
+      digitWidth = Math.max(digitWidth, paint.measureText(DIGITS, i, 1));
+    }
+
+    float width = 0;
+    if (formatter.isWidestAtEnds()) {
+      width = measureWidth(paint, buffer, format(0, buffer), digitWidth);
+      width = Math.max(width, measureWidth(paint, buffer, format(size - 1, buffer), digitWidth));
+    } else {
+      for (int position = 0; position < size; position++) {
+        width = Math.max(width, measureWidth(paint, buffer, format(position, buffer), digitWidth));
+      }
+    }
+    return (int) Math.ceil(width);
+  }
+
+  private static float measureWidth(Paint paint, char[] text, int length, float digitWidth) {
+    float width = 0;
+    for (int i = 0; i < length; i++) {
+      char c = text[i];
+      width += c >= '0' && c <= '9' ? digitWidth : paint.measureText(text, i, 1);
+    }
+    return width;
+  }
+
+  private static int formatDecimal(int value, int minDigits, char[] buffer) {
+    long remainder = Math.abs((long) value);
+    int digitCount = 1;
+    for (long rest = remainder; rest >= 10; rest /= 10) {
+      digitCount++;
+    }
+    digitCount = Math.max(digitCount, minDigits);
+
+    int length = value < 0 ? digitCount + 1 : digitCount;
+    for (int i = length - 1; i >= length - digitCount; i--) {
+      buffer[i] = (char) ('0' + remainder % 10);
+      remainder /= 10;
+    }
+    if (value < 0) {
+      buffer[0] = '-';
+    }
+    return length;
+  }
+
+  public interface Formatter {
+    /**
+     * Write text of {@code value} into {@code buffer} starting from 0, called on every frame for drawn items, so it must not allocate
+     *
+     * @return count of written chars, at most {@link #MAX_LENGTH}
+     */
+    int format(int value, char[] buffer);
+
+    /**
+     * @return true if no value of a range has wider text than the first or the last value, e.g. it is true for
+     * plain decimal numbers, but not for month names or numbers with unit suffixes. By default false, so every value is
+     * measured.
+     */
+    default boolean isWidestAtEnds() {
+      return false;
+    }
+  }
+
+  /**
+   * Count of digits and sign grow with absolute value, so the widest text is at one of the ends of a range
+   */
+  private static final class DecimalFormatter implements Formatter {
+    private final int minDigits;
+
+    DecimalFormatter(int minDigits) {
+      this.minDigits = minDigits;
+    }
+
+    @Override
+    public int format(int value, char[] buffer) {
+      return formatDecimal(value, minDigits, buffer);
+    }
+
+    @Override
+    public boolean isWidestAtEnds() {
+      return true;
+    }
+  }
+}
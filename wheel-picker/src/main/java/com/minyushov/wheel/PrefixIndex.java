@@ -0,0 +1,187 @@
+package com.minyushov.wheel;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Item labels of {@link WheelItemSource} sorted case-insensitively, so items can be found by label prefix with a binary search.
+ * Index is built by {@link #build(Object[])} from a snapshot of items on a background thread, and then kept up to date
+ * by item changes, insertions and removals, which are applied in place.
+ */
+final class PrefixIndex {
+  private String[] keys = new String[0];
+  private int[] positions = new int[0];
+  private int size;
+  private boolean valid;
+  private int generation;
+
+  boolean isValid() {
+    return valid;
+  }
+
+  /**
+   * @return number which changes every time the index is invalidated, so a stale build can be dropped
+   */
+  int getGeneration() {
+    return generation;
+  }
+
+  void invalidate() {
+    valid = false;
+    generation++;
+  }
+
+  void set(PrefixIndex index) {
+    keys = index.keys;
+    positions = index.positions;
+    size = index.size;
+    valid = true;
+  }
+
+  /**
+   * @return position of the first item in alphabetical order whose label starts with {@code prefix}, or -1 if there is none
+   */
+  int find(CharSequence prefix) {
+    if (!valid) {
+      return -1;
+    }
+
+    String key = toKey(prefix);
+    int index = lowerBound(key, Integer.MIN_VALUE);
+    if (index < size && keys[index].startsWith(key)) {
+      return positions[index];
+    }
+    return -1;
+  }
+
+  void onRangeChanged(WheelItemSource<?> source, int start, int count) {
+    if (!valid) {
+      return;
+    }
+
+    removeRange(start, count);
+    for (int position = start; position < start + count; position++) {
+      insert(toKey(String.valueOf(source.getItem(position))), position);
+    }
+  }
+
+  void onRangeInserted(WheelItemSource<?> source, int start, int count) {
+    if (!valid) {
+      return;
+    }
+
+    for (int i = 0; i < size; i++) {
+      if (positions[i] >= start) {
+        positions[i] += count;
+      }
+    }
+    for (int position = start; position < start + count; position++) {
+      insert(toKey(String.valueOf(source.getItem(position))), position);
+    }
+  }
+
+  void onRangeRemoved(int start, int count) {
+    if (!valid) {
+      return;
+    }
+
+    removeRange(start, count);
+    for (int i = 0; i < size; i++) {
+      if (positions[i] >= start + count) {
+        positions[i] -= count;
+      }
+    }
+  }
+
+  private void removeRange(int start, int count) {
+    int newSize = 0;
+    for (int i = 0; i < size; i++) {
+      int position = positions[i];
+      if (position < start || position >= start + count) {
+        keys[newSize] = keys[i];
+        positions[newSize] = position;
+        newSize++;
+      }
+    }
+    Arrays.fill(keys, newSize, size, null);
+    size = newSize;
+  }
+
+  private void insert(String key, int position) {
+    if (size == keys.length) {
+      int capacity = Math.max(8, size * 3 / 2);
+      keys = Arrays.copyOf(keys, capacity);
+      positions = Arrays.copyOf(positions, capacity);
+    }
+
+    int index = lowerBound(key, position);
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(positions, index, positions, index + 1, size - index);
+    keys[index] = key;
+    positions[index] = position;
+    size++;
+  }
+
+  /**
+   * @return index of the first entry which is not less than entry with this {@code key} and {@code position}
+   */
+  private int lowerBound(String key, int position) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compare(keys[middle], positions[middle], key, position) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int compare(String key1, int position1, String key2, int position2) {
+    int result = key1.compareTo(key2);
+    return result != 0 ? result : Integer.compare(position1, position2);
+  }
+
+  private static String toKey(CharSequence label) {
+    return label.toString().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Build index of all items of {@code source}. Safe to call from a background thread if {@code source} is not modified meanwhile.
+   */
+  static PrefixIndex build(WheelItemSource<?> source) {
+    Object[] items = new Object[source.getSize()];
+    for (int position = 0; position < items.length; position++) {
+      items[position] = source.getItem(position);
+    }
+    return build(items);
+  }
+
+  /**
+   * Build index of {@code items}, labelled by their {@link Object#toString()}. Safe to call from a background thread,
+   * {@code items} is a snapshot which nobody else modifies.
+   */
+  static PrefixIndex build(Object[] items) {
+    int size = items.length;
+    Integer[] order = new Integer[size];
+    String[] labels = new String[size];
+    for (int position = 0; position < size; position++) {
+      order[position] = position;
+      labels[position] = toKey(String.valueOf(items[position]));
+    }
+    Arrays.sort(order, (position1, position2) -> compare(labels[position1], position1, labels[position2], position2));
+
+    PrefixIndex index = new PrefixIndex();
+    index.keys = new String[size];
+    index.positions = new int[size];
+    for (int i = 0; i < size; i++) {
+      index.keys[i] = labels[order[i]];
+      index.positions[i] = order[i];
+    }
+    index.size = size;
+    index.valid = true;
+    return index;
+  }
+}
@@ -0,0 +1,114 @@
+package com.minyushov.wheel;
+
+import android.graphics.Bitmap;
+
+/**
+ * Bounded cache of pre-rendered row bitmaps keyed by position.
+ * Each entry holds a row rendered with the base paint and, only for rows which have crossed the selected band, a row rendered
+ * with the selected paint. Capacity slightly exceeds the count of drawn rows, so rows of the drawn window never evict each
+ * other and bitmaps of rows which leave the window are reused for rows which enter it.
+ */
+final class RowLayerCache {
+  private int[] positions = new int[0];
+  private Bitmap[] icons = new Bitmap[0];
+  private Bitmap[] layers = new Bitmap[0];
+  private Bitmap[] selectedLayers = new Bitmap[0];
+  private boolean[] valid = new boolean[0];
+  private boolean[] selectedValid = new boolean[0];
+
+  private int width;
+  private int height;
+
+  /**
+   * Prepare cache for {@code capacity} rows of this size, cached rows are released if anything has changed
+   */
+  void configure(int capacity, int width, int height) {
+    if (capacity == positions.length && width == this.width && height == this.height) {
+      return;
+    }
+    release();
+    this.width = width;
+    this.height = height;
+    positions = new int[capacity];
+    icons = new Bitmap[capacity];
+    layers = new Bitmap[capacity];
+    selectedLayers = new Bitmap[capacity];
+    valid = new boolean[capacity];
+    selectedValid = new boolean[capacity];
+    invalidate();
+  }
+
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * @return rendered row with this {@code position} and {@code icon}, or null if it has to be rendered
+   */
+  Bitmap get(int position, Bitmap icon, boolean selected) {
+    int index = index(position);
+    if (positions[index] != position || icons[index] != icon) {
+      return null;
+    }
+    if (selected) {
+      return selectedValid[index] ? selectedLayers[index] : null;
+    } else {
+      return valid[index] ? layers[index] : null;
+    }
+  }
+
+  /**
+   * @return bitmap to render row with this {@code position} and {@code icon} into, it is considered rendered afterwards
+   */
+  Bitmap obtain(int position, Bitmap icon, boolean selected) {
+    int index = index(position);
+    if (positions[index] != position || icons[index] != icon) {
+      positions[index] = position;
+      icons[index] = icon;
+      valid[index] = false;
+      selectedValid[index] = false;
+    }
+
+    Bitmap[] bitmaps = selected ? selectedLayers : layers;
+    if (bitmaps[index] == null) {
+      bitmaps[index] = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+    if (selected) {
+      selectedValid[index] = true;
+    } else {
+      valid[index] = true;
+    }
+    return bitmaps[index];
+  }
+
+  /**
+   * Mark all rows to be rendered again, bitmaps are kept for reuse
+   */
+  void invalidate() {
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = Integer.MIN_VALUE;
+      icons[i] = null;
+      valid[i] = false;
+      selectedValid[i] = false;
+    }
+  }
+
+  void release() {
+    for (int i = 0; i < layers.length; i++) {
+      if (layers[i] != null) {
+        layers[i].recycle();
+        layers[i] = null;
+      }
+      if (selectedLayers[i] != null) {
+        selectedLayers[i].recycle();
+        selectedLayers[i] = null;
+      }
+    }
+    positions = new int[0];
+    width = height = 0;
+  }
+
+  private int index(int position) {
+    return Math.floorMod(position, positions.length);
+  }
+}
@@ -0,0 +1,69 @@
+package com.minyushov.wheel;
+
+import android.widget.SectionIndexer;
+
+/**
+ * Start positions of sections of {@link WheelPicker} data, precomputed from {@link SectionIndexer} once it is set, so the
+ * scrubber maps a touch to a section and its start position in constant time.
+ */
+final class SectionTable {
+  private int[] starts = new int[0];
+  private int count;
+
+  /**
+   * Precompute start positions of all sections of {@code indexer}, sections which start outside of data are skipped
+   */
+  void set(SectionIndexer indexer, int itemCount) {
+    count = 0;
+    if (indexer == null || itemCount == 0) {
+      return;
+    }
+
+    Object[] sections = indexer.getSections();
+    int sectionCount = sections != null ? sections.length : 0;
+    if (starts.length < sectionCount) {
+      starts = new int[sectionCount];
+    }
+    int previousStart = -1;
+    for (int section = 0; section < sectionCount; section++) {
+      int start = indexer.getPositionForSection(section);
+      if (start > previousStart && start < itemCount) {
+        starts[count++] = start;
+        previousStart = start;
+      }
+    }
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  int getStart(int section) {
+    return starts[section];
+  }
+
+  /**
+   * @return section under scrubber at this {@code fraction} of its height
+   */
+  int getSectionAt(float fraction) {
+    int section = (int) (fraction * count);
+    return Math.max(0, Math.min(count - 1, section));
+  }
+
+  /**
+   * @return section which contains item with this {@code position}
+   */
+  int getSection(int position) {
+    int low = 0;
+    int high = count - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (starts[middle] <= position) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+}
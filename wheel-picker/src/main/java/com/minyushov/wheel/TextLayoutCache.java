@@ -0,0 +1,170 @@
+package com.minyushov.wheel;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Layout;
+import android.text.PrecomputedText;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of single-line text layouts of labels, ellipsized to the available width and keyed by drawn position
+ * like {@link LabelCache}. Layouts are built by {@link #build(String, Request)} on a background thread and only positioned
+ * on the main thread, since Android P labels are shaped into {@link PrecomputedText} first. Every layout has its own
+ * paint, so its color and alpha may be changed on the main thread while other layouts are built. Entries are validated
+ * by label identity, so labels rebuilt by {@link LabelCache} after data changes are laid out again.
+ */
+final class TextLayoutCache {
+  private static final int EMPTY = Integer.MIN_VALUE;
+
+  private final TextPaint paint = new TextPaint();
+  private PrecomputedText.Params params;
+  private float textSize;
+  private Typeface typeface;
+  private int width;
+  private int generation;
+
+  private int[] keys = new int[0];
+  private int[] positions = new int[0];
+  private String[] labels = new String[0];
+  private Layout[] layouts = new Layout[0];
+  private boolean[] requested = new boolean[0];
+  private int mask;
+
+  TextLayoutCache() {
+    ensureCapacity(8);
+  }
+
+  /**
+   * Make sure that {@code count} consecutive positions can be cached at once
+   */
+  void ensureCapacity(int count) {
+    int capacity = Integer.highestOneBit(Math.max(count * 2, 16) - 1) << 1;
+    if (capacity > keys.length) {
+      keys = new int[capacity];
+      positions = new int[capacity];
+      labels = new String[capacity];
+      layouts = new Layout[capacity];
+      requested = new boolean[capacity];
+      mask = capacity - 1;
+      invalidate();
+    }
+  }
+
+  /**
+   * Drop all layouts if text metrics of {@code textPaint} or available {@code width} have changed
+   *
+   * @return true if layouts were dropped
+   */
+  boolean configure(Paint textPaint, int width) {
+    if (width == this.width && textPaint.getTextSize() == textSize && textPaint.getTypeface() == typeface) {
+      return false;
+    }
+    this.width = width;
+    textSize = textPaint.getTextSize();
+    typeface = textPaint.getTypeface();
+
+    paint.set(textPaint);
+    paint.setTextAlign(Paint.Align.LEFT);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+      params = new PrecomputedText.Params.Builder(paint).build();
+    }
+    invalidate();
+    return true;
+  }
+
+  /**
+   * @return layout of {@code label} drawn at this {@code key}, or null if it is not built yet
+   */
+  Layout getLayout(int key, int position, String label) {
+    return layouts[resolve(key, position, label)];
+  }
+
+  /**
+   * @return request to build layout of {@code label} at this {@code key} if it is neither built nor requested yet, it is
+   * marked as requested then, otherwise null
+   */
+  Request request(int key, int position, String label) {
+    int index = resolve(key, position, label);
+    if (layouts[index] != null || requested[index]) {
+      return null;
+    }
+    requested[index] = true;
+    return new Request(new TextPaint(paint), params, width, generation);
+  }
+
+  /**
+   * Apply built {@code layout}, or clear the request if {@code layout} is null, when this {@code key} still holds the
+   * same {@code label} laid out with the same metrics
+   *
+   * @return true if the request was still pending
+   */
+  boolean setLayout(int key, String label, int generation, Layout layout) {
+    int index = key & mask;
+    if (generation != this.generation || keys[index] != key || labels[index] != label || !requested[index]) {
+      return false;
+    }
+    requested[index] = false;
+    layouts[index] = layout;
+    return true;
+  }
+
+  void invalidate() {
+    generation++;
+    Arrays.fill(keys, EMPTY);
+    Arrays.fill(positions, EMPTY);
+    Arrays.fill(labels, null);
+    Arrays.fill(layouts, null);
+    Arrays.fill(requested, false);
+  }
+
+  private int resolve(int key, int position, String label) {
+    int index = key & mask;
+    if (keys[index] != key || positions[index] != position || labels[index] != label) {
+      keys[index] = key;
+      positions[index] = position;
+      labels[index] = label;
+      layouts[index] = null;
+      requested[index] = false;
+    }
+    return index;
+  }
+
+  /**
+   * Shape and lay out {@code label}, safe to call from a background thread
+   */
+  static Layout build(String label, Request request) {
+    CharSequence text = label;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+      text = PrecomputedText.create(label, request.params);
+    }
+    return StaticLayout.Builder.obtain(text, 0, text.length(), request.paint, request.width)
+      .setAlignment(Layout.Alignment.ALIGN_CENTER)
+      .setMaxLines(1)
+      .setEllipsize(TextUtils.TruncateAt.END)
+      .setEllipsizedWidth(request.width)
+      .setIncludePad(false)
+      .build();
+  }
+
+  /**
+   * Everything a background thread needs to build a layout, {@code paint} is a private copy which becomes the paint of the layout
+   */
+  static final class Request {
+    final TextPaint paint;
+    final PrecomputedText.Params params;
+    final int width;
+    final int generation;
+
+    Request(TextPaint paint, PrecomputedText.Params params, int width, int generation) {
+      this.paint = paint;
+      this.params = params;
+      this.width = width;
+      this.generation = generation;
+    }
+  }
+}
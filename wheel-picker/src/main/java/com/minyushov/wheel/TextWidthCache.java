@@ -0,0 +1,188 @@
+package com.minyushov.wheel;
+
+import android.graphics.Paint;
+
+/**
+ * Measured text widths of all items in {@link WheelItemSource}.
+ * Widths are kept per position, so item changes, insertions and removals re-measure only the affected items.
+ * Cache must be invalidated when the data source is replaced or the paint changes.
+ * Hash of all measured labels is kept alongside, so saved max width can later be matched against data cheaply.
+ */
+final class TextWidthCache {
+  private int[] widths = new int[0];
+  private int[] hashes = new int[0];
+  private int size;
+  private int maxWidth;
+  private int labelHash;
+  private boolean valid;
+
+  boolean isValid() {
+    return valid;
+  }
+
+  int getMaxWidth() {
+    return maxWidth;
+  }
+
+  /**
+   * @return hash of labels of all measured items, equal to {@link #computeLabelHash(WheelItemSource)} of the same data
+   */
+  int getLabelHash() {
+    return labelHash;
+  }
+
+  void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Measure all items of {@code source}, widths array is reused if it is large enough
+   */
+  void measure(WheelItemSource<?> source, Paint paint) {
+    int count = source.getSize();
+    if (widths.length < count) {
+      widths = new int[count];
+      hashes = new int[count];
+    }
+    labelHash = count;
+    for (int i = 0; i < count; i++) {
+      measure(paint, source.getItem(i), i);
+      labelHash += hashes[i];
+    }
+    size = count;
+    maxWidth = computeMaxWidth();
+    valid = true;
+  }
+
+  /**
+   * Take widths and hashes of the {@code measured} cache, e.g. built by {@link #measureAll(WheelItemSource, Paint)}
+   */
+  void set(TextWidthCache measured) {
+    widths = measured.widths;
+    hashes = measured.hashes;
+    size = measured.size;
+    maxWidth = measured.maxWidth;
+    labelHash = measured.labelHash;
+    valid = true;
+  }
+
+  void onRangeChanged(WheelItemSource<?> source, Paint paint, int start, int count) {
+    if (!valid) {
+      return;
+    }
+
+    boolean rescan = false;
+    for (int i = start; i < start + count; i++) {
+      int oldWidth = widths[i];
+      labelHash -= hashes[i];
+      measure(paint, source.getItem(i), i);
+      labelHash += hashes[i];
+      int width = widths[i];
+      if (width > maxWidth) {
+        maxWidth = width;
+      } else if (oldWidth == maxWidth && width < oldWidth) {
+        rescan = true;
+      }
+    }
+
+    if (rescan) {
+      maxWidth = computeMaxWidth();
+    }
+  }
+
+  void onRangeInserted(WheelItemSource<?> source, Paint paint, int start, int count) {
+    if (!valid) {
+      return;
+    }
+
+    if (size + count > widths.length) {
+      int capacity = Math.max(size + count, widths.length * 3 / 2);
+      widths = insertGap(widths, capacity, start, count, size);
+      hashes = insertGap(hashes, capacity, start, count, size);
+    } else {
+      System.arraycopy(widths, start, widths, start + count, size - start);
+      System.arraycopy(hashes, start, hashes, start + count, size - start);
+    }
+    size += count;
+    labelHash += count;
+
+    for (int i = start; i < start + count; i++) {
+      measure(paint, source.getItem(i), i);
+      labelHash += hashes[i];
+      maxWidth = Math.max(maxWidth, widths[i]);
+    }
+  }
+
+  void onRangeRemoved(int start, int count) {
+    if (!valid) {
+      return;
+    }
+
+    boolean rescan = false;
+    for (int i = start; i < start + count; i++) {
+      rescan |= widths[i] == maxWidth;
+      labelHash -= hashes[i];
+    }
+
+    System.arraycopy(widths, start + count, widths, start, size - start - count);
+    System.arraycopy(hashes, start + count, hashes, start, size - start - count);
+    size -= count;
+    labelHash -= count;
+
+    if (rescan) {
+      maxWidth = computeMaxWidth();
+    }
+  }
+
+  private int computeMaxWidth() {
+    int max = 0;
+    for (int i = 0; i < size; i++) {
+      max = Math.max(max, widths[i]);
+    }
+    return max;
+  }
+
+  private static int[] insertGap(int[] values, int capacity, int start, int count, int size) {
+    int[] newValues = new int[capacity];
+    System.arraycopy(values, 0, newValues, 0, start);
+    System.arraycopy(values, start, newValues, start + count, size - start);
+    return newValues;
+  }
+
+  /**
+   * Measure all items of {@code source} into a new cache which can be applied by {@link #set(TextWidthCache)}.
+   * Safe to call from a background thread if {@code paint} is not shared with the UI thread.
+   */
+  static TextWidthCache measureAll(WheelItemSource<?> source, Paint paint) {
+    TextWidthCache cache = new TextWidthCache();
+    cache.measure(source, paint);
+    return cache;
+  }
+
+  /**
+   * @return hash of labels of all items of {@code source}, reading every label is still much cheaper than measuring it
+   */
+  static int computeLabelHash(WheelItemSource<?> source) {
+    int size = source.getSize();
+    int hash = size;
+    for (int i = 0; i < size; i++) {
+      hash += hash(String.valueOf(source.getItem(i)));
+    }
+    return hash;
+  }
+
+  private void measure(Paint paint, WheelItem<?> item, int position) {
+    String label = String.valueOf(item);
+    widths[position] = (int) paint.measureText(label);
+    hashes[position] = hash(label);
+  }
+
+  /**
+   * Spread hash of {@code label}, hashes of all labels are summed, so any position can be added or removed in place.
+   * Width depends only on which labels there are, not on their order.
+   */
+  private static int hash(String label) {
+    int hash = label.hashCode() * 0x9E3779B1;
+    return hash ^ (hash >>> 16);
+  }
+}
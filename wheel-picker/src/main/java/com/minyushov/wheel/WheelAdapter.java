@@ -1,17 +1,35 @@
 package com.minyushov.wheel;
 
+import java.util.AbstractList;
 import java.util.List;
 
 public final class WheelAdapter<T> {
-  private List<WheelItem<T>> data;
+  private WheelItemSource<T> source;
   private OnItemSelectedListener<T> onItemSelectedListener;
   private WheelPicker wheelPicker;
+  private WheelGroup group;
+  private PrefixIndex prefixIndex;
+  private boolean isPrefixIndexBuilding;
+  private boolean isPrefixIndexStale;
+  private int submitGeneration;
+  private boolean isApplyingDiff;
 
   public void bind(WheelPicker wheelPicker) {
     this.wheelPicker = wheelPicker;
     wheelPicker.setAdapter(this);
   }
 
+  /**
+   * Bind this adapter to {@code wheelPicker}, which may be recycled from another adapter, and select item with this
+   * {@code position} without animation. Scroller, paints and caches of the wheel are reused, measured text widths are
+   * kept if the wheel is rebound to this adapter with the same data, and layout is requested only if the measured size
+   * of the wheel changes.
+   */
+  public void bind(WheelPicker wheelPicker, int selectedItemPosition) {
+    this.wheelPicker = wheelPicker;
+    wheelPicker.setAdapter(this, selectedItemPosition);
+  }
+
   /**
    * Apply new {@code data} to {@link WheelPicker} and select first item without animation
    */
@@ -30,22 +48,280 @@ public final class WheelAdapter<T> {
    * Apply new {@code data} to {@link WheelPicker} and select item with this {@code position} with animation if animated == true
    */
   public void setData(List<WheelItem<T>> data, int selectedItemPosition, boolean animated) {
-    this.data = data;
+    setSource(data != null ? new ListItemSource<>(data) : null, selectedItemPosition, animated);
+  }
+
+  /**
+   * Apply new {@code source} to {@link WheelPicker} and select first item without animation
+   */
+  public void setSource(WheelItemSource<T> source) {
+    setSource(source, 0);
+  }
+
+  /**
+   * Apply new {@code source} to {@link WheelPicker} and select item with this {@code position} without animation
+   */
+  public void setSource(WheelItemSource<T> source, int selectedItemPosition) {
+    setSource(source, selectedItemPosition, false);
+  }
+
+  /**
+   * Apply new {@code source} to {@link WheelPicker} and select item with this {@code position} with animation if animated == true.
+   * Items of the source are requested lazily, only for positions which are drawn or selected.
+   */
+  public void setSource(WheelItemSource<T> source, int selectedItemPosition, boolean animated) {
+    this.source = source;
+    submitGeneration++;
+    buildPrefixIndex();
 
     if (wheelPicker != null) {
       wheelPicker.setAdapter(this);
-      if (selectedItemPosition < data.size()) {
+      if (selectedItemPosition < getSize()) {
         wheelPicker.setSelectedItemPosition(selectedItemPosition, animated);
       }
     }
   }
 
+  /**
+   * Replace data with {@code data} keeping the selected item selected even if its position has changed.
+   * Old and new data are compared on a background thread using {@code callback}, then only the changed items are applied
+   * to {@link WheelPicker} on the main thread. Neither list may be modified until the new data is applied.
+   */
+  public void submitData(final List<WheelItem<T>> data, final ItemCallback<T> callback) {
+    final List<WheelItem<T>> oldData = getData();
+    if (oldData == null || oldData.isEmpty() || data.isEmpty() || wheelPicker == null) {
+      setData(data);
+      return;
+    }
+
+    final int generation = ++submitGeneration;
+    final int selectedPosition = wheelPicker.getCurrentItemPosition();
+    WheelExecutors.background().execute(() -> {
+      final WheelDiff diff = WheelDiff.compute(oldData, data, callback, selectedPosition);
+      WheelExecutors.main().post(() -> {
+        if (generation == submitGeneration) {
+          applyDiff(data, diff);
+        }
+      });
+    });
+  }
+
+  private void applyDiff(List<WheelItem<T>> data, WheelDiff diff) {
+    source = new ListItemSource<>(data);
+    if (isPrefixIndexReady()) {
+      prefixIndex.onRangeRemoved(diff.start, diff.removedCount);
+      prefixIndex.onRangeInserted(source, diff.start, diff.insertedCount);
+      for (int i = 0; i < diff.changedRangeCount; i++) {
+        prefixIndex.onRangeChanged(source, diff.changedRanges[i * 2], diff.changedRanges[i * 2 + 1]);
+      }
+    }
+
+    // Wheel may have been recycled and bound to another adapter while the diff was computed
+    if (wheelPicker == null) {
+      return;
+    }
+    int newPosition = diff.mapPosition(wheelPicker.getCurrentItemPosition());
+
+    // Selection changes caused by removal are not reported, selected item is restored below
+    isApplyingDiff = true;
+    wheelPicker.beginBatch();
+    if (diff.removedCount > 0) {
+      wheelPicker.onItemRangeRemoved(diff.start, diff.removedCount);
+    }
+    if (diff.insertedCount > 0) {
+      wheelPicker.onItemRangeInserted(diff.start, diff.insertedCount);
+    }
+    for (int i = 0; i < diff.changedRangeCount; i++) {
+      wheelPicker.onItemRangeChanged(diff.changedRanges[i * 2], diff.changedRanges[i * 2 + 1]);
+    }
+    if (newPosition >= 0 && newPosition != wheelPicker.getCurrentItemPosition()) {
+      wheelPicker.moveSelectedItemPosition(newPosition);
+    }
+    wheelPicker.endBatch();
+    isApplyingDiff = false;
+
+    if (newPosition < 0) {
+      onItemSelected(wheelPicker.getCurrentItemPosition());
+    }
+  }
+
+  /**
+   * Notify {@link WheelPicker} that item with this {@code position} has changed.
+   * Only this item is measured and drawn again, scroll position and selection are kept.
+   */
+  public void notifyItemChanged(int position) {
+    notifyItemRangeChanged(position, 1);
+  }
+
+  /**
+   * Notify {@link WheelPicker} that {@code count} items starting from {@code positionStart} have changed.
+   * Only these items are measured and drawn again, scroll position and selection are kept.
+   */
+  public void notifyItemRangeChanged(int positionStart, int count) {
+    if (count > 0 && isPrefixIndexReady()) {
+      prefixIndex.onRangeChanged(source, positionStart, count);
+    }
+    if (wheelPicker != null && count > 0) {
+      wheelPicker.onItemRangeChanged(positionStart, count);
+    }
+  }
+
+  /**
+   * Notify {@link WheelPicker} that item was inserted into data at this {@code position}
+   */
+  public void notifyItemInserted(int position) {
+    notifyItemRangeInserted(position, 1);
+  }
+
+  /**
+   * Notify {@link WheelPicker} that {@code count} items were inserted into data starting from {@code positionStart}.
+   * Only inserted items are measured, selected item stays selected.
+   */
+  public void notifyItemRangeInserted(int positionStart, int count) {
+    if (count > 0 && isPrefixIndexReady()) {
+      prefixIndex.onRangeInserted(source, positionStart, count);
+    }
+    if (wheelPicker != null && count > 0) {
+      wheelPicker.onItemRangeInserted(positionStart, count);
+    }
+  }
+
+  /**
+   * Notify {@link WheelPicker} that item was removed from data at this {@code position}
+   */
+  public void notifyItemRemoved(int position) {
+    notifyItemRangeRemoved(position, 1);
+  }
+
+  /**
+   * Notify {@link WheelPicker} that {@code count} items were removed from data starting from {@code positionStart}.
+   * Selected item stays selected, if it was removed the nearest remaining item is selected.
+   */
+  public void notifyItemRangeRemoved(int positionStart, int count) {
+    if (count > 0 && isPrefixIndexReady()) {
+      prefixIndex.onRangeRemoved(positionStart, count);
+    }
+    if (wheelPicker != null && count > 0) {
+      wheelPicker.onItemRangeRemoved(positionStart, count);
+    }
+  }
+
+  /**
+   * Enable index of item labels used by {@link #selectItemWithPrefix(CharSequence)}.
+   * Index is built on a background thread whenever data is replaced and updated in place by notify methods. Data set by
+   * {@link #setData(List)} is copied before the build, other sources are read on the background thread, so they must not be
+   * modified while the index is being built.
+   */
+  public void setPrefixIndexEnabled(boolean enabled) {
+    if (enabled == (prefixIndex != null)) {
+      return;
+    }
+    prefixIndex = enabled ? new PrefixIndex() : null;
+    buildPrefixIndex();
+  }
+
+  public boolean isPrefixIndexEnabled() {
+    return prefixIndex != null;
+  }
+
+  /**
+   * @return position of the first item in alphabetical order whose label starts with {@code prefix} ignoring case,
+   * or -1 if there is no such item, prefix index is disabled or it is still being built
+   */
+  public int findItemWithPrefix(CharSequence prefix) {
+    return prefixIndex != null ? prefixIndex.find(prefix) : -1;
+  }
+
+  /**
+   * Select the first item in alphabetical order whose label starts with {@code prefix} ignoring case, e.g. as user types.
+   * Scroll is animated over a few items only, however far the item is. Requires {@link #setPrefixIndexEnabled(boolean)}.
+   *
+   * @return true if such item was found
+   */
+  public boolean selectItemWithPrefix(CharSequence prefix) {
+    int position = findItemWithPrefix(prefix);
+    if (position < 0) {
+      return false;
+    }
+    if (wheelPicker != null) {
+      wheelPicker.scrollToPosition(position);
+    }
+    return true;
+  }
+
+  /**
+   * @return true if prefix index is built and can be updated in place, an index which is still being built may miss
+   * the change, so it is rebuilt
+   */
+  private boolean isPrefixIndexReady() {
+    if (prefixIndex == null) {
+      return false;
+    }
+    if (!prefixIndex.isValid()) {
+      buildPrefixIndex();
+      return false;
+    }
+    return true;
+  }
+
+  private void buildPrefixIndex() {
+    if (prefixIndex == null) {
+      return;
+    }
+    prefixIndex.invalidate();
+    if (source == null) {
+      return;
+    }
+
+    if (isPrefixIndexBuilding) {
+      // Only one build runs at a time, changes made meanwhile are picked up by a single build once it lands
+      isPrefixIndexStale = true;
+      return;
+    }
+
+    final PrefixIndex index = prefixIndex;
+    final int generation = index.getGeneration();
+    final WheelItemSource<T> source = this.source;
+    // Data list may be changed on the main thread while index is built, so it is built from a copy
+    final Object[] items = source instanceof ListItemSource ? ((ListItemSource<T>) source).list.toArray() : null;
+    isPrefixIndexBuilding = true;
+    WheelExecutors.background().execute(() -> {
+      final PrefixIndex built = items != null ? PrefixIndex.build(items) : PrefixIndex.build(source);
+      WheelExecutors.main().post(() -> {
+        isPrefixIndexBuilding = false;
+        if (isPrefixIndexStale) {
+          isPrefixIndexStale = false;
+          buildPrefixIndex();
+        } else if (index == prefixIndex && generation == index.getGeneration()) {
+          index.set(built);
+        }
+      });
+    });
+  }
+
+  public WheelItemSource<T> getSource() {
+    return source;
+  }
+
+  /**
+   * @return data which was set by {@link #setData(List)} or a read-only list view of the source which was set by {@link #setSource(WheelItemSource)}
+   */
   public List<WheelItem<T>> getData() {
-    return data;
+    if (source == null) {
+      return null;
+    }
+    if (source instanceof ListItemSource) {
+      return ((ListItemSource<T>) source).list;
+    }
+    return new SourceList<>(source);
   }
 
   public int getSize() {
-    return data != null ? data.size() : 0;
+    return source != null ? source.getSize() : 0;
+  }
+
+  public WheelItem<T> getItem(int position) {
+    return source.getItem(position);
   }
 
   /**
@@ -63,11 +339,18 @@ public final class WheelAdapter<T> {
   }
 
   public void setSelectedItemPosition(int position) {
-    wheelPicker.setSelectedItemPosition(position, true);
+    setSelectedItemPosition(position, true);
   }
 
+  /**
+   * Select item with this {@code position}. Animated selection is reported once the wheel settles, selection without
+   * animation, or while the wheel is in motion, is reported at once, so wheels of a {@link WheelGroup} follow it either way.
+   */
   public void setSelectedItemPosition(int position, boolean animated) {
     wheelPicker.setSelectedItemPosition(position, animated);
+    if (!wheelPicker.isScrollerRunning()) {
+      onItemSelected(wheelPicker.getCurrentItemPosition());
+    }
   }
 
   public void setOnItemSelectedListener(OnItemSelectedListener<T> onItemSelectedListener) {
@@ -75,20 +358,109 @@ public final class WheelAdapter<T> {
   }
 
   public WheelItem<T> getCurrentItem() {
-    if (data == null || data.isEmpty() || wheelPicker.getCurrentItemPosition() >= data.size() || wheelPicker.getCurrentItemPosition() < 0) {
+    if (getSize() == 0 || wheelPicker.getCurrentItemPosition() >= getSize() || wheelPicker.getCurrentItemPosition() < 0) {
       return null;
     }
 
-    return data.get(wheelPicker.getCurrentItemPosition());
+    return source.getItem(wheelPicker.getCurrentItemPosition());
   }
 
   void onItemSelected(int position) {
-    if (onItemSelectedListener != null && data != null && position < data.size() && position >= 0) {
-      onItemSelectedListener.onItemSelected(data.get(position).getData());
+    if (isApplyingDiff || position >= getSize() || position < 0) {
+      return;
+    }
+    if (onItemSelectedListener != null) {
+      onItemSelectedListener.onItemSelected(source.getItem(position).getData());
     }
+    if (group != null) {
+      group.onItemSelected(this, position);
+    }
+  }
+
+  WheelPicker getWheelPicker() {
+    return wheelPicker;
+  }
+
+  /**
+   * Called when {@code wheelPicker} was bound to another adapter
+   */
+  void onUnbound(WheelPicker wheelPicker) {
+    if (this.wheelPicker == wheelPicker) {
+      this.wheelPicker = null;
+    }
+  }
+
+  /**
+   * @return cheap fingerprint of data, which covers size and labels of at most 17 evenly spaced items, so it may miss
+   * changes between sampled items
+   */
+  int computeFingerprint() {
+    int size = getSize();
+    int fingerprint = size;
+    int step = Math.max(1, (size + 15) / 16);
+    for (int position = 0; position < size; position += step) {
+      fingerprint = 31 * fingerprint + String.valueOf(source.getItem(position)).hashCode();
+    }
+    if (size > 0) {
+      fingerprint = 31 * fingerprint + String.valueOf(source.getItem(size - 1)).hashCode();
+    }
+    return fingerprint;
+  }
+
+  /**
+   * @return number which changes every time the data is replaced, but not when it is changed through notify methods
+   */
+  int getDataGeneration() {
+    return submitGeneration;
+  }
+
+  WheelGroup getGroup() {
+    return group;
+  }
+
+  void setGroup(WheelGroup group) {
+    this.group = group;
   }
 
   public interface OnItemSelectedListener<T> {
     void onItemSelected(T item);
   }
+
+  /**
+   * Compares items of old and new data in {@link #submitData(List, ItemCallback)}, called on a background thread
+   */
+  public interface ItemCallback<T> {
+    /**
+     * @return true if both items represent the same entity, e.g. they have the same stable id
+     */
+    boolean areItemsTheSame(T oldItem, T newItem);
+
+    /**
+     * Called only if {@link #areItemsTheSame} returned true
+     *
+     * @return true if item is displayed the same way, otherwise it is measured and drawn again
+     */
+    boolean areContentsTheSame(T oldItem, T newItem);
+  }
+
+  private static final class SourceList<T> extends AbstractList<WheelItem<T>> {
+    private final WheelItemSource<T> source;
+
+    SourceList(WheelItemSource<T> source) {
+      this.source = source;
+    }
+
+    @Override
+    public WheelItem<T> get(int index) {
+      if (index < 0 || index >= source.getSize()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + source.getSize());
+      }
+      return source.getItem(index);
+    }
+
+    @Override
+    public int size() {
+      return source.getSize();
+    }
+  }
 }
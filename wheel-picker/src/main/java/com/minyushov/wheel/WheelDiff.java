@@ -0,0 +1,129 @@
+package com.minyushov.wheel;
+
+import java.util.List;
+
+/**
+ * Minimal change set between two lists of {@link WheelItem}s.
+ * Common head and tail of both lists are matched by {@link WheelAdapter.ItemCallback#areItemsTheSame}, the rest of the old
+ * list is removed and the rest of the new list is inserted. This is linear in list size, which covers appends, removals,
+ * insertions and in-place updates of server-driven lists without an O(n * d) diff.
+ */
+final class WheelDiff {
+  /**
+   * Position of the first item which is not in the common head
+   */
+  final int start;
+  final int removedCount;
+  final int insertedCount;
+
+  /**
+   * Pairs of (start, count) of items in the new list with changed contents
+   */
+  final int[] changedRanges;
+  final int changedRangeCount;
+
+  private final int oldSize;
+  private final int newSize;
+
+  /**
+   * Position of item which was selected when diff was computed
+   */
+  final int oldSelectedPosition;
+
+  /**
+   * Position in the new list of item which was selected when diff was computed, or -1 if it was removed
+   */
+  final int newSelectedPosition;
+
+  private WheelDiff(int start, int removedCount, int insertedCount, int[] changedRanges, int changedRangeCount, int oldSize, int newSize, int oldSelectedPosition, int newSelectedPosition) {
+    this.start = start;
+    this.removedCount = removedCount;
+    this.insertedCount = insertedCount;
+    this.changedRanges = changedRanges;
+    this.changedRangeCount = changedRangeCount;
+    this.oldSize = oldSize;
+    this.newSize = newSize;
+    this.oldSelectedPosition = oldSelectedPosition;
+    this.newSelectedPosition = newSelectedPosition;
+  }
+
+  /**
+   * @return position in the new list of item with this {@code oldPosition}, or -1 if it was removed or might have moved
+   */
+  int mapPosition(int oldPosition) {
+    if (oldPosition == oldSelectedPosition) {
+      return newSelectedPosition;
+    } else if (oldPosition < start) {
+      return oldPosition;
+    } else if (oldPosition >= start + removedCount && oldPosition < oldSize) {
+      return oldPosition - oldSize + newSize;
+    } else {
+      return -1;
+    }
+  }
+
+  static <T> WheelDiff compute(List<WheelItem<T>> oldData, List<WheelItem<T>> newData, WheelAdapter.ItemCallback<T> callback, int selectedPosition) {
+    int oldSize = oldData.size();
+    int newSize = newData.size();
+
+    int head = 0;
+    while (head < oldSize && head < newSize && callback.areItemsTheSame(oldData.get(head).getData(), newData.get(head).getData())) {
+      head++;
+    }
+
+    int tail = 0;
+    while (tail < oldSize - head && tail < newSize - head && callback.areItemsTheSame(oldData.get(oldSize - 1 - tail).getData(), newData.get(newSize - 1 - tail).getData())) {
+      tail++;
+    }
+
+    int[] changedRanges = new int[8];
+    int changedRangeCount = 0;
+    int rangeStart = -1;
+    for (int newPosition = 0; newPosition <= newSize; newPosition++) {
+      boolean changed = false;
+      if (newPosition < head) {
+        changed = !callback.areContentsTheSame(oldData.get(newPosition).getData(), newData.get(newPosition).getData());
+      } else if (newPosition >= newSize - tail && newPosition < newSize) {
+        int oldPosition = newPosition - newSize + oldSize;
+        changed = !callback.areContentsTheSame(oldData.get(oldPosition).getData(), newData.get(newPosition).getData());
+      }
+
+      if (changed && rangeStart < 0) {
+        rangeStart = newPosition;
+      } else if (!changed && rangeStart >= 0) {
+        if (changedRangeCount * 2 == changedRanges.length) {
+          int[] ranges = new int[changedRanges.length * 2];
+          System.arraycopy(changedRanges, 0, ranges, 0, changedRanges.length);
+          changedRanges = ranges;
+        }
+        changedRanges[changedRangeCount * 2] = rangeStart;
+        changedRanges[changedRangeCount * 2 + 1] = newPosition - rangeStart;
+        changedRangeCount++;
+        rangeStart = -1;
+      }
+    }
+
+    int removedCount = oldSize - head - tail;
+    int insertedCount = newSize - head - tail;
+
+    int newSelectedPosition = -1;
+    if (selectedPosition >= 0 && selectedPosition < oldSize) {
+      if (selectedPosition < head) {
+        newSelectedPosition = selectedPosition;
+      } else if (selectedPosition >= oldSize - tail) {
+        newSelectedPosition = selectedPosition - oldSize + newSize;
+      } else {
+        // Selected item is in the replaced part, look it up by identity
+        T selected = oldData.get(selectedPosition).getData();
+        for (int i = head; i < newSize - tail; i++) {
+          if (callback.areItemsTheSame(selected, newData.get(i).getData())) {
+            newSelectedPosition = i;
+            break;
+          }
+        }
+      }
+    }
+
+    return new WheelDiff(head, removedCount, insertedCount, changedRanges, changedRangeCount, oldSize, newSize, selectedPosition, newSelectedPosition);
+  }
+}
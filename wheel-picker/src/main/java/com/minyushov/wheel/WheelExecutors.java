@@ -0,0 +1,76 @@
+package com.minyushov.wheel;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Shared background executor for work which must not block the UI thread, like measuring or indexing large data sets
+ */
+final class WheelExecutors {
+  private static final Handler main = new Handler(Looper.getMainLooper());
+  private static volatile Executor background;
+
+  private WheelExecutors() {
+  }
+
+  static Handler main() {
+    return main;
+  }
+
+  static Executor background() {
+    Executor executor = background;
+    if (executor == null) {
+      synchronized (WheelExecutors.class) {
+        executor = background;
+        if (executor == null) {
+          executor = new SerialExecutor("WheelPicker-background");
+          background = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  /**
+   * Runs tasks one by one on a single daemon thread. Tasks are queued in a ring buffer which only grows, so queueing a task
+   * while scrolling allocates nothing, unlike standard executors which allocate a queue node per task.
+   */
+  private static final class SerialExecutor implements Executor, Runnable {
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+    SerialExecutor(String name) {
+      Thread thread = new Thread(this, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public synchronized void execute(Runnable task) {
+      tasks.addLast(task);
+      notifyAll();
+    }
+
+    @Override
+    public void run() {
+      Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+      while (true) {
+        Runnable task;
+        synchronized (this) {
+          while (tasks.isEmpty()) {
+            try {
+              wait();
+            } catch (InterruptedException ignored) {
+              // Daemon thread lives as long as the process, there is nobody to stop it
+            }
+          }
+          task = tasks.pollFirst();
+        }
+        task.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.minyushov.wheel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordinates wheels whose data depends on selection of other wheels, e.g. year, month and day of a date picker.
+ * When selection of a wheel changes, dependencies of all wheels downstream of it are resolved at once. While they
+ * are resolved, content updates of all wheels in the group are batched, so data changes reported through
+ * {@link WheelAdapter} notify methods are applied incrementally and layout is requested at most once per wheel,
+ * only if its measured size has actually changed.
+ */
+public final class WheelGroup {
+  private final List<Member> members = new ArrayList<>();
+  private final List<Link> links = new ArrayList<>();
+  private boolean isDispatching;
+
+  /**
+   * Make data of {@code downstream} depend on selection of {@code upstream} wheels.
+   * Dependencies are resolved in the order they are added, so a dependency must be added after dependencies of its
+   * upstream wheels.
+   */
+  public void addDependency(WheelAdapter<?> downstream, Dependency dependency, WheelAdapter<?>... upstream) {
+    if (upstream.length == 0) {
+      throw new IllegalArgumentException("Dependency must have at least one upstream wheel");
+    }
+
+    Member[] upstreamMembers = new Member[upstream.length];
+    for (int i = 0; i < upstream.length; i++) {
+      upstreamMembers[i] = obtainMember(upstream[i]);
+    }
+    links.add(new Link(obtainMember(downstream), dependency, upstreamMembers));
+  }
+
+  /**
+   * Resolve all dependencies for current selection, e.g. once all wheels of the group are bound
+   */
+  public void update() {
+    for (Member member : members) {
+      member.position = member.adapter.getWheelPicker() != null ? member.adapter.getCurrentItemPosition() : -1;
+      member.isChanged = true;
+    }
+    dispatch();
+  }
+
+  void onItemSelected(WheelAdapter<?> adapter, int position) {
+    Member member = findMember(adapter);
+    if (member == null || member.position == position) {
+      return;
+    }
+    member.position = position;
+    member.isChanged = true;
+
+    // Selection changes caused by resolving are picked up by dependencies which come later
+    if (!isDispatching) {
+      dispatch();
+    }
+  }
+
+  private void dispatch() {
+    isDispatching = true;
+    for (Member member : members) {
+      WheelPicker wheelPicker = member.adapter.getWheelPicker();
+      if (wheelPicker != null) {
+        wheelPicker.beginBatch();
+      }
+    }
+
+    try {
+      for (Link link : links) {
+        if (link.isAffected()) {
+          link.resolve();
+        }
+      }
+    } finally {
+      for (Member member : members) {
+        member.isChanged = false;
+      }
+      isDispatching = false;
+      for (Member member : members) {
+        WheelPicker wheelPicker = member.adapter.getWheelPicker();
+        if (wheelPicker != null) {
+          wheelPicker.endBatch();
+        }
+      }
+    }
+  }
+
+  private Member obtainMember(WheelAdapter<?> adapter) {
+    Member member = findMember(adapter);
+    if (member == null) {
+      if (adapter.getGroup() != null) {
+        throw new IllegalStateException("WheelAdapter already belongs to another WheelGroup");
+      }
+      adapter.setGroup(this);
+      member = new Member(adapter);
+      members.add(member);
+    }
+    return member;
+  }
+
+  private Member findMember(WheelAdapter<?> adapter) {
+    for (int i = 0, size = members.size(); i < size; i++) {
+      Member member = members.get(i);
+      if (member.adapter == adapter) {
+        return member;
+      }
+    }
+    return null;
+  }
+
+  public interface Dependency {
+    /**
+     * Called when selection of any upstream wheel has changed.
+     * Update data of {@code downstream} in place and report what has changed through
+     * {@link WheelAdapter#notifyItemRangeInserted(int, int)}, {@link WheelAdapter#notifyItemRangeRemoved(int, int)} or
+     * {@link WheelAdapter#notifyItemRangeChanged(int, int)}, e.g. remove days 29-31 when February is selected.
+     *
+     * @param upstreamPositions
+     *   current positions of upstream wheels in the order they were passed to {@link #addDependency}, -1 if unknown
+     */
+    void onUpstreamChanged(WheelAdapter<?> downstream, int[] upstreamPositions);
+  }
+
+  private static final class Member {
+    final WheelAdapter<?> adapter;
+    int position = -1;
+    boolean isChanged;
+
+    Member(WheelAdapter<?> adapter) {
+      this.adapter = adapter;
+    }
+  }
+
+  private static final class Link {
+    final Member downstream;
+    final Dependency dependency;
+    final Member[] upstream;
+    final int[] upstreamPositions;
+
+    Link(Member downstream, Dependency dependency, Member[] upstream) {
+      this.downstream = downstream;
+      this.dependency = dependency;
+      this.upstream = upstream;
+      this.upstreamPositions = new int[upstream.length];
+    }
+
+    boolean isAffected() {
+      for (Member member : upstream) {
+        if (member.isChanged) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    void resolve() {
+      for (int i = 0; i < upstream.length; i++) {
+        upstreamPositions[i] = upstream[i].position;
+      }
+      dependency.onUpstreamChanged(downstream.adapter, upstreamPositions);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.minyushov.wheel;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+
+/**
+ * Shared pool of {@link WheelItem} icons.
+ * Icons are keyed by drawable resource id or by source bitmap and by requested size, so items with the same icon share
+ * one bitmap. {@link WheelPicker} always tints icons with its text colors, so only the alpha channel is kept and every
+ * pooled icon is an immutable {@link Bitmap.Config#ALPHA_8} bitmap, downsampled to the requested size.
+ * Pool is bounded by a memory budget, least recently used icons are evicted and decoded again when requested.
+ */
+public final class WheelIconPool {
+  private static final LruCache<Key, Bitmap> icons = new LruCache<Key, Bitmap>(defaultMaxSize()) {
+    @Override
+    protected int sizeOf(Key key, Bitmap value) {
+      return value.getAllocationByteCount();
+    }
+  };
+
+  private WheelIconPool() {
+  }
+
+  /**
+   * Set memory budget of pooled icons in bytes
+   */
+  public static void setMaxSize(int maxSize) {
+    icons.resize(maxSize);
+  }
+
+  /**
+   * Release all pooled icons, they will be decoded again when requested
+   */
+  public static void clear() {
+    icons.evictAll();
+  }
+
+  /**
+   * @param size
+   *   maximum width and height of icon in pixels, or 0 to keep the original size
+   */
+  static synchronized Bitmap obtain(Resources resources, int drawableId, int size) {
+    Key key = new Key(resources, drawableId, size);
+    Bitmap icon = icons.get(key);
+    if (icon == null) {
+      icon = decode(resources, drawableId, size);
+      if (icon != null) {
+        icons.put(key, icon);
+      }
+    }
+    return icon;
+  }
+
+  /**
+   * @param size
+   *   maximum width and height of icon in pixels, or 0 to keep the original size
+   */
+  static synchronized Bitmap obtain(Bitmap source, int size) {
+    Key key = new Key(source, 0, size);
+    Bitmap icon = icons.get(key);
+    if (icon == null) {
+      icon = toMask(scale(source, size), source);
+      icons.put(key, icon);
+    }
+    return icon;
+  }
+
+  private static int defaultMaxSize() {
+    return (int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE);
+  }
+
+  private static Bitmap decode(Resources resources, int drawableId, int size) {
+    BitmapFactory.Options options = new BitmapFactory.Options();
+    if (size > 0) {
+      options.inJustDecodeBounds = true;
+      BitmapFactory.decodeResource(resources, drawableId, options);
+      options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, size);
+      options.inJustDecodeBounds = false;
+    }
+
+    Bitmap decoded = BitmapFactory.decodeResource(resources, drawableId, options);
+    if (decoded == null) {
+      return null;
+    }
+
+    Bitmap scaled = scale(decoded, size);
+    if (scaled != decoded) {
+      decoded.recycle();
+    }
+    return toMask(scaled, null);
+  }
+
+  private static int computeSampleSize(int width, int height, int size) {
+    int sampleSize = 1;
+    while (Math.max(width, height) / (sampleSize * 2) >= size) {
+      sampleSize *= 2;
+    }
+    return sampleSize;
+  }
+
+  private static Bitmap scale(Bitmap bitmap, int size) {
+    int maxSide = Math.max(bitmap.getWidth(), bitmap.getHeight());
+    if (size <= 0 || maxSide <= size) {
+      return bitmap;
+    }
+    float scale = (float) size / maxSide;
+    return Bitmap.createScaledBitmap(bitmap, Math.max(1, Math.round(bitmap.getWidth() * scale)), Math.max(1, Math.round(bitmap.getHeight() * scale)), true);
+  }
+
+  /**
+   * Extract immutable alpha mask of {@code bitmap} and recycle {@code bitmap} unless it is the caller's {@code source}
+   */
+  private static Bitmap toMask(Bitmap bitmap, Bitmap source) {
+    Bitmap alpha = bitmap.extractAlpha();
+    if (bitmap != source) {
+      bitmap.recycle();
+    }
+    // Extracted alpha is mutable, pooled icons are shared by all wheels, so only an immutable copy is kept
+    Bitmap mask = alpha.copy(Bitmap.Config.ALPHA_8, false);
+    alpha.recycle();
+    return mask;
+  }
+
+  /**
+   * Key of pooled icon, {@code source} is either {@link Resources} of a drawable or a source {@link Bitmap} and is compared by identity
+   */
+  private static final class Key {
+    private final Object source;
+    private final int drawableId;
+    private final int size;
+
+    Key(Object source, int drawableId, int size) {
+      this.source = source;
+      this.drawableId = drawableId;
+      this.size = size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return source == key.source && drawableId == key.drawableId && size == key.size;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(source);
+      result = 31 * result + drawableId;
+      result = 31 * result + size;
+      return result;
+    }
+  }
+}
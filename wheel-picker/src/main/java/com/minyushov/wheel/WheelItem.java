@@ -8,33 +8,76 @@ import androidx.annotation.NonNull;
 
 public final class WheelItem<T> {
   private final T data;
-  private final Bitmap icon;
+  private final Resources resources;
+  private final int drawableId;
+  private final Bitmap bitmap;
+  private Bitmap ownIcon;
 
   public WheelItem(T data) {
     this.data = data;
-    this.icon = null;
+    this.resources = null;
+    this.drawableId = 0;
+    this.bitmap = null;
   }
 
+  /**
+   * Icon is decoded once per {@code drawableId} and shared through {@link WheelIconPool}
+   */
   public WheelItem(Resources resources, T data, int drawableId) {
     this.data = data;
-    this.icon = BitmapFactory.decodeResource(resources, drawableId).copy(Bitmap.Config.ARGB_8888, true);
+    this.resources = resources;
+    this.drawableId = drawableId;
+    this.bitmap = null;
   }
 
+  /**
+   * Icon is derived once per {@code bitmap} and shared through {@link WheelIconPool}, {@code bitmap} must not be modified afterwards
+   */
   public WheelItem(T data, Bitmap bitmap) {
     this.data = data;
-    if (bitmap == null) {
-      icon = null;
-    } else {
-      this.icon = bitmap.copy(Bitmap.Config.ARGB_8888, true);
-    }
+    this.resources = null;
+    this.drawableId = 0;
+    this.bitmap = bitmap;
   }
 
   public T getData() {
     return data;
   }
 
-  public Bitmap getIcon() {
-    return icon;
+  /**
+   * @return item's own mutable {@link Bitmap.Config#ARGB_8888} copy of its icon, or null if item has no icon.
+   * Copy is made on the first call on the calling thread and kept by the item, wheels draw shared masks from {@link WheelIconPool} instead.
+   */
+  public synchronized Bitmap getIcon() {
+    if (ownIcon == null) {
+      if (bitmap != null) {
+        ownIcon = bitmap.copy(Bitmap.Config.ARGB_8888, true);
+      } else if (resources != null) {
+        Bitmap decoded = BitmapFactory.decodeResource(resources, drawableId);
+        if (decoded != null) {
+          ownIcon = decoded.copy(Bitmap.Config.ARGB_8888, true);
+          decoded.recycle();
+        }
+      }
+    }
+    return ownIcon;
+  }
+
+  boolean hasIcon() {
+    return bitmap != null || resources != null;
+  }
+
+  /**
+   * Resolve icon through {@link WheelIconPool}, may decode so it is called from a background thread while drawing
+   */
+  Bitmap getIcon(int size) {
+    if (bitmap != null) {
+      return WheelIconPool.obtain(bitmap, size);
+    } else if (resources != null) {
+      return WheelIconPool.obtain(resources, drawableId, size);
+    } else {
+      return null;
+    }
   }
 
   @NonNull
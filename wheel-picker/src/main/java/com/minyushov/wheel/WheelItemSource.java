@@ -0,0 +1,18 @@
+package com.minyushov.wheel;
+
+/**
+ * Position-based source of {@link WheelItem}s for {@link WheelAdapter}.
+ * {@link WheelPicker} requests items only for positions which are drawn or selected, so
+ * implementations can create them lazily instead of holding a materialized list of all items.
+ */
+public interface WheelItemSource<T> {
+  /**
+   * @return count of items in this source
+   */
+  int getSize();
+
+  /**
+   * @return item with this {@code position}, where {@code position} is always in [0, {@link #getSize()})
+   */
+  WheelItem<T> getItem(int position);
+}
@@ -0,0 +1,58 @@
+package com.minyushov.wheel;
+
+/**
+ * Receives performance metrics of {@link WheelPicker}, set by {@link WheelPicker#setMetricsListener(WheelMetricsListener)}.
+ * Metrics are collected only while a listener is set. All methods are called on the main thread, right after the
+ * measured work, so implementations must be cheap and should only aggregate values.
+ */
+public interface WheelMetricsListener {
+  /**
+   * @param durationNanos
+   *   time spent in {@code onDraw}
+   */
+  void onDraw(long durationNanos);
+
+  /**
+   * @param durationNanos
+   *   time spent in {@code onMeasure}
+   */
+  void onMeasure(long durationNanos);
+
+  /**
+   * Called when widths of all items are measured to find the widest one
+   *
+   * @param durationNanos
+   *   time spent on measurement, on a background thread if measurement is asynchronous
+   * @param itemCount
+   *   count of measured items
+   */
+  void onTextMeasured(long durationNanos, int itemCount);
+
+  /**
+   * Called for every animation frame of fling, snap or animated selection
+   *
+   * @param isLate
+   *   true if the frame came later than one and a half display frame intervals after the previous one
+   */
+  void onAnimationFrame(boolean isLate);
+
+  /**
+   * Called when a touch gesture ends with a fling
+   *
+   * @param velocity
+   *   velocity of the fling in pixels per second
+   * @param distance
+   *   distance in pixels the wheel is going to scroll
+   */
+  void onFling(int velocity, int distance);
+
+  /**
+   * Called when new data is bound to the wheel by {@link WheelAdapter}
+   *
+   * @param durationNanos
+   *   time spent on rebinding, including synchronous text measurement
+   * @param itemCount
+   *   count of items in new data
+   */
+  void onDataBound(long durationNanos, int itemCount);
+}
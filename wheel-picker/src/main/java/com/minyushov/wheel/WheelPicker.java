@@ -6,23 +6,34 @@ import android.content.res.TypedArray;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.LinearGradient;
 import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffColorFilter;
+import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
 import android.graphics.Region;
+import android.graphics.Shader;
 import android.graphics.Typeface;
-import android.os.Handler;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.text.Layout;
+import android.text.TextPaint;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.util.TypedValue;
+import android.view.Display;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.widget.SectionIndexer;
 import android.widget.Scroller;
 
+import java.util.ArrayDeque;
+
 import androidx.annotation.ColorInt;
 import androidx.annotation.Px;
 import androidx.appcompat.content.res.AppCompatResources;
@@ -31,19 +42,40 @@ public class WheelPicker extends View implements Runnable {
   private static final String TAG = "WheelPicker";
   private static final boolean DEBUG = false;
 
+  private static final long DEFAULT_FRAME_INTERVAL_NANOS = 16_666_667;
+
   public static final int SCROLL_STATE_IDLE = 0;
   public static final int SCROLL_STATE_DRAGGING = 1;
   public static final int SCROLL_STATE_SCROLLING = 2;
 
+  /**
+   * {@link OnWheelChangeListener#onWheelScrolled(int)} is invoked on every frame in which scroll offset changes
+   */
+  public static final int SCROLL_EVENTS_PER_FRAME = 0;
+  /**
+   * {@link OnWheelChangeListener#onWheelScrolled(int)} is invoked each time an item crosses the center of the wheel
+   */
+  public static final int SCROLL_EVENTS_PER_ITEM = 1;
+  /**
+   * {@link OnWheelChangeListener#onWheelScrolled(int)} is invoked at most once per interval set by {@link #setScrollEventInterval(long)},
+   * the last dropped offset is delivered when scrolling stops
+   */
+  public static final int SCROLL_EVENTS_THROTTLED = 2;
+
   private static final int QUICK_SCROLL_VELOCITY = 10000;
+  private static final int MAX_ANIMATED_ITEM_COUNT = 5;
+  private static final int NO_WIDTH = -1;
   private static final int TOUCH_SLOP = 4;
 
-  private final Handler handler = new Handler();
+  /**
+   * Count of rows above and below drawn rows whose icons are loaded in advance
+   */
+  private static final int ICON_PREFETCH_MARGIN = 2;
 
   private final Paint textPaint;
   private final Paint selectedTextPaint;
 
-  private Scroller scroller;
+  private final Scroller scroller;
   private VelocityTracker tracker;
 
   /**
@@ -54,6 +86,18 @@ public class WheelPicker extends View implements Runnable {
 
   private OnWheelChangeListener onWheelChangeListener;
 
+  private WheelMetricsListener metricsListener;
+  private long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+  private long lastFrameTimeNanos;
+
+  private int scrollState = SCROLL_STATE_IDLE;
+  private int scrollEventMode = SCROLL_EVENTS_PER_FRAME;
+  private long scrollEventInterval;
+  private long lastScrollEventTime;
+  private int lastScrollEventItem;
+  private boolean isScrollEventPending;
+  private int pendingScrollEventOffset;
+
   private final Rect rectItem = new Rect();
   private final Rect rectCurrentItem = new Rect();
 
@@ -61,8 +105,42 @@ public class WheelPicker extends View implements Runnable {
   private final Rect rectIcon = new Rect();
   private final Rect rectText = new Rect();
 
+  private SectionIndexer sectionIndexer;
+  private final SectionTable sectionTable = new SectionTable();
+  private final Rect rectScrubber = new Rect();
+  private final Rect rectScrubberThumb = new Rect();
+  private final Paint scrubberPaint = new Paint();
+  @Px
+  private int scrubberWidth;
+  private boolean isScrubberShown;
+  private boolean isScrubbing;
+
   private WheelAdapter<?> adapter;
 
+  private final TextWidthCache textWidthCache = new TextWidthCache();
+  private final char[] numberChars = new char[NumberRangeSource.MAX_LENGTH];
+  private final TextLayoutCache textLayoutCache = new TextLayoutCache();
+  private boolean isPrecomputedTextEnabled;
+  private final LabelCache labelCache = new LabelCache();
+  private int iconGeneration;
+  private int iconPrefetchPosition = Integer.MIN_VALUE;
+  private volatile int iconWindowStart;
+  private volatile int iconWindowEnd;
+  private final ArrayDeque<IconLoad> iconLoadPool = new ArrayDeque<>();
+
+  private final RowLayerCache rowLayerCache = new RowLayerCache();
+  private final Canvas layerCanvas = new Canvas();
+  private final Paint layerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+  private final Paint fadePaint = new Paint();
+  private boolean isRowCacheEnabled;
+  private int asyncMeasurementThreshold = Integer.MAX_VALUE;
+  private int measurementGeneration;
+  private boolean isMeasuringAsync;
+  private int restoredTextMaxWidth = NO_WIDTH;
+  private int restoredLabelHash;
+  private boolean isTextSizePending;
+  private boolean hasMeasured;
+
   private String maxWidthText;
 
   private int visibleItemCount;
@@ -87,8 +165,7 @@ public class WheelPicker extends View implements Runnable {
   private int selectedItemPosition;
   private int currentItemPosition;
 
-  private int minFlingY;
-  private int maxFlingY;
+  private final WheelScrollEngine engine = new WheelScrollEngine();
 
   private final int minimumVelocity;
   private final int maximumVelocity;
@@ -105,10 +182,16 @@ public class WheelPicker extends View implements Runnable {
 
   private boolean hasSameWidth;
   private boolean hasAtmospheric;
+  private boolean isCyclic;
 
   private boolean isClick;
   private boolean isForceFinishScroll;
 
+  private int batchDepth;
+  private boolean isContentChangePending;
+
+  private int boundDataGeneration;
+
   public WheelPicker(Context context) {
     this(context, null);
   }
@@ -135,6 +218,10 @@ public class WheelPicker extends View implements Runnable {
     drawableSize = typedArray.getDimensionPixelSize(R.styleable.WheelPicker_wheel_drawableSize, 0);
     drawablePadding = typedArray.getDimensionPixelOffset(R.styleable.WheelPicker_android_drawablePadding, 0);
     hasAtmospheric = typedArray.getBoolean(R.styleable.WheelPicker_wheel_atmospheric, false);
+    isCyclic = typedArray.getBoolean(R.styleable.WheelPicker_wheel_cyclic, false);
+    scrubberWidth = typedArray.getDimensionPixelSize(R.styleable.WheelPicker_wheel_scrubber_width, 0);
+    engine.setItemHeight(itemHeight);
+    engine.setCyclic(isCyclic);
     typedArray.recycle();
 
     textPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.DITHER_FLAG | Paint.LINEAR_TEXT_FLAG);
@@ -149,6 +236,8 @@ public class WheelPicker extends View implements Runnable {
     selectedTextPaint.setColorFilter(new PorterDuffColorFilter(textColorSelected, PorterDuff.Mode.SRC_IN));
     selectedTextPaint.setStyle(Paint.Style.FILL);
 
+    fadePaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.DST_IN));
+
     // Correct sizes of text
     computeTextSize();
 
@@ -165,6 +254,7 @@ public class WheelPicker extends View implements Runnable {
     textPaint.setColorFilter(new PorterDuffColorFilter(textColor, PorterDuff.Mode.SRC_IN));
     selectedTextPaint.setColorFilter(new PorterDuffColorFilter(textColorSelected, PorterDuff.Mode.SRC_IN));
     computeCurrentItemRect();
+    rowLayerCache.invalidate();
     invalidate();
   }
 
@@ -172,6 +262,7 @@ public class WheelPicker extends View implements Runnable {
     textColor = color;
     textPaint.setColorFilter(new PorterDuffColorFilter(textColor, PorterDuff.Mode.SRC_IN));
     computeCurrentItemRect();
+    rowLayerCache.invalidate();
     invalidate();
   }
 
@@ -179,18 +270,21 @@ public class WheelPicker extends View implements Runnable {
     textColorSelected = color;
     selectedTextPaint.setColorFilter(new PorterDuffColorFilter(textColorSelected, PorterDuff.Mode.SRC_IN));
     computeCurrentItemRect();
+    rowLayerCache.invalidate();
     invalidate();
   }
 
   public void setTextSize(@Px int textSize) {
     textPaint.setTextSize(textSize);
     selectedTextPaint.setTextSize(textSize);
+    invalidateTextWidths();
     computeTextSize();
     requestLayout();
   }
 
   public void setItemHeight(@Px int height) {
     itemHeight = height;
+    engine.setItemHeight(height);
     requestLayout();
   }
 
@@ -202,6 +296,7 @@ public class WheelPicker extends View implements Runnable {
 
   public void setDrawableSize(@Px int size) {
     drawableSize = size;
+    invalidateIcons();
     updateContentPositions();
     requestLayout();
   }
@@ -216,23 +311,44 @@ public class WheelPicker extends View implements Runnable {
       visibleItemCount += 1;
     }
     drawnItemCount = visibleItemCount + 2;
+    labelCache.ensureCapacity(drawnItemCount + ICON_PREFETCH_MARGIN * 2);
+    textLayoutCache.ensureCapacity(drawnItemCount + ICON_PREFETCH_MARGIN * 2);
+    iconPrefetchPosition = Integer.MIN_VALUE;
   }
 
   private void computeTextSize() {
+    int previousMaxWidth = textMaxWidth;
     textMaxWidth = textMaxHeight = 0;
+    isTextSizePending = false;
     if (adapter != null && adapter.getSize() != 0) {
       if (hasSameWidth) {
-        textMaxWidth = (int) textPaint.measureText(String.valueOf(adapter.getData().get(0)));
+        textMaxWidth = (int) textPaint.measureText(String.valueOf(adapter.getItem(0)));
       } else if (isPosInRange(textMaxWidthPosition)) {
         textMaxWidth = (int) textPaint.measureText
-          (String.valueOf(adapter.getData().get(textMaxWidthPosition)));
+          (String.valueOf(adapter.getItem(textMaxWidthPosition)));
       } else if (!TextUtils.isEmpty(maxWidthText)) {
         textMaxWidth = (int) textPaint.measureText(maxWidthText);
+      } else if (adapter.getSource() instanceof NumberRangeSource) {
+        textMaxWidth = ((NumberRangeSource) adapter.getSource()).computeMaxWidth(textPaint, numberChars);
+      } else if (textWidthCache.isValid()) {
+        textMaxWidth = textWidthCache.getMaxWidth();
+      } else if (restoredTextMaxWidth != NO_WIDTH) {
+        // Same data was measured before configuration change
+        textMaxWidth = restoredTextMaxWidth;
+      } else if (!hasMeasured) {
+        // Measure on first measure pass, saved state which is restored before it may make measurement unnecessary
+        textMaxWidth = previousMaxWidth;
+        isTextSizePending = true;
+      } else if (adapter.getSize() >= asyncMeasurementThreshold) {
+        // Keep previous width until measurement is finished
+        textMaxWidth = previousMaxWidth;
+        measureTextWidthsAsync();
       } else {
-        for (Object obj : adapter.getData()) {
-          String text = String.valueOf(obj);
-          int width = (int) textPaint.measureText(text);
-          textMaxWidth = Math.max(textMaxWidth, width);
+        long measureStartNanos = metricsListener != null ? System.nanoTime() : 0;
+        textWidthCache.measure(adapter.getSource(), textPaint);
+        textMaxWidth = textWidthCache.getMaxWidth();
+        if (metricsListener != null) {
+          metricsListener.onTextMeasured(System.nanoTime() - measureStartNanos, adapter.getSize());
         }
       }
     }
@@ -243,13 +359,60 @@ public class WheelPicker extends View implements Runnable {
     updateContentPositions();
   }
 
+  private void invalidateTextWidths() {
+    textWidthCache.invalidate();
+    restoredTextMaxWidth = NO_WIDTH;
+    measurementGeneration++;
+    isMeasuringAsync = false;
+  }
+
+  private void measureTextWidthsAsync() {
+    if (isMeasuringAsync) {
+      return;
+    }
+    isMeasuringAsync = true;
+
+    final int generation = measurementGeneration;
+    final WheelItemSource<?> source = adapter.getSource();
+    final Paint paint = new Paint(textPaint);
+    WheelExecutors.background().execute(() -> {
+      final long measureStartNanos = System.nanoTime();
+      final TextWidthCache measured = TextWidthCache.measureAll(source, paint);
+      final long durationNanos = System.nanoTime() - measureStartNanos;
+      post(() -> {
+        if (generation != measurementGeneration) {
+          return;
+        }
+        if (metricsListener != null) {
+          metricsListener.onTextMeasured(durationNanos, source.getSize());
+        }
+        isMeasuringAsync = false;
+        textWidthCache.set(measured);
+        int oldTextMaxWidth = textMaxWidth;
+        int oldTextMaxHeight = textMaxHeight;
+        computeTextSize();
+        requestLayoutIfContentSizeChanged(oldTextMaxWidth, oldTextMaxHeight);
+        invalidate();
+      });
+    });
+  }
+
   private void updateContentPositions() {
+    // Rows are rendered relative to content positions
+    rowLayerCache.invalidate();
+
     int contentWidth = textMaxWidth + drawablePadding + drawableSize;
 
+    // Scrubber takes a strip at the end edge only if content still fits beside it, content is centered in the rest
+    isScrubberShown = hasScrubber() && rectItem.width() >= contentWidth + scrubberWidth;
+    int contentRight = isScrubberShown ? rectItem.right - scrubberWidth : rectItem.right;
+    int contentCenterX = (rectItem.left + contentRight) / 2;
+    rectScrubber.set(contentRight, rectItem.top, rectItem.right, rectItem.bottom);
+
     rectContent.set(
-      rectItem.centerX() - contentWidth / 2,
+      contentCenterX - contentWidth / 2,
       rectItem.top,
-      rectItem.centerX() + contentWidth / 2,
+      contentCenterX + contentWidth / 2,
       rectItem.bottom
     );
 
@@ -270,6 +433,13 @@ public class WheelPicker extends View implements Runnable {
 
   @Override
   protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    long measureStartNanos = metricsListener != null ? System.nanoTime() : 0;
+
+    hasMeasured = true;
+    if (isTextSizePending) {
+      computeTextSize();
+    }
+
     int modeWidth = MeasureSpec.getMode(widthMeasureSpec);
     int modeHeight = MeasureSpec.getMode(heightMeasureSpec);
 
@@ -278,6 +448,9 @@ public class WheelPicker extends View implements Runnable {
 
     // Correct sizes of original content
     int resultWidth = textMaxWidth + drawableSize;
+    if (hasScrubber()) {
+      resultWidth += scrubberWidth;
+    }
     int resultHeight = textMaxHeight * visibleItemCount;
 
     if (DEBUG) {
@@ -297,6 +470,10 @@ public class WheelPicker extends View implements Runnable {
     resultHeight = measureSize(modeHeight, sizeHeight, resultHeight);
 
     setMeasuredDimension(resultWidth, resultHeight);
+
+    if (metricsListener != null) {
+      metricsListener.onMeasure(System.nanoTime() - measureStartNanos);
+    }
   }
 
   private int measureSize(int mode, int sizeExpect, int sizeActual) {
@@ -329,6 +506,8 @@ public class WheelPicker extends View implements Runnable {
     // Get the center coordinates of content region
     wheelCenterY = rectItem.centerY();
 
+    updateFadeShader();
+
     // Correct item drawn center
     drawnCenterY = (int) (wheelCenterY - ((textPaint.ascent() + textPaint.descent()) / 2));
 
@@ -344,10 +523,23 @@ public class WheelPicker extends View implements Runnable {
     updateContentPositions();
   }
 
+  /**
+   * Build atmospheric fade mask, which is opaque in the center of the content region and transparent at its edges
+   */
+  private void updateFadeShader() {
+    if (rectItem.height() <= 0) {
+      fadePaint.setShader(null);
+      return;
+    }
+    fadePaint.setShader(new LinearGradient(
+      0, rectItem.top, 0, rectItem.bottom,
+      new int[] {Color.TRANSPARENT, Color.BLACK, Color.TRANSPARENT},
+      null,
+      Shader.TileMode.CLAMP));
+  }
+
   private void computeFlingLimitY() {
-    int currentItemOffset = currentItemPosition * itemHeight;
-    minFlingY = -itemHeight * (adapter.getSize() - 1) + currentItemOffset;
-    maxFlingY = currentItemOffset;
+    engine.computeFlingLimits(currentItemPosition, adapter.getSize());
   }
 
   private void computeCurrentItemRect() {
@@ -358,67 +550,90 @@ public class WheelPicker extends View implements Runnable {
 
   @Override
   protected void onDraw(Canvas canvas) {
-    int drawnDataStartPos = -scrollOffsetY / itemHeight - drawnItemCount / 2;
-    for (int drawnDataPos = drawnDataStartPos + selectedItemPosition,
-         drawnOffsetPos = -drawnItemCount / 2;
-         drawnDataPos < drawnDataStartPos + selectedItemPosition + drawnItemCount;
-         drawnDataPos++, drawnOffsetPos++) {
+    long drawStartNanos = metricsListener != null ? System.nanoTime() : 0;
 
-      String data = "";
-      Bitmap icon = null;
+    // Content is clipped once for all rows, only rows which intersect the selected band are drawn twice
+    canvas.save();
+    canvas.clipRect(rectItem);
 
-      if (isPosInRange(drawnDataPos)) {
-        WheelItem<?> item = adapter.getData().get(drawnDataPos);
-        data = String.valueOf(item);
-        icon = item.getIcon();
-      }
+    // Rows are faded all at once by masking the layer they are drawn into, so text, icons and selected rows fade alike
+    boolean useFade = hasAtmospheric && fadePaint.getShader() != null;
+    if (useFade) {
+      canvas.saveLayer(rectItem.left, rectItem.top, rectItem.right, rectItem.bottom, null);
+    }
 
-      int mDrawnItemCenterY = drawnCenterY + (drawnOffsetPos * itemHeight) +
-        scrollOffsetY % itemHeight;
+    boolean hasSelectedColor = textColor != textColorSelected;
+    int rowHalfHeight = Math.max(itemHeight, textMaxHeight) / 2;
 
-      if (hasAtmospheric) {
-        int alpha = (int) ((drawnCenterY - Math.abs(drawnCenterY - mDrawnItemCenterY)) * 1.0F / drawnCenterY * 255);
-        alpha = Math.max(alpha, 0);
-        textPaint.setAlpha(alpha);
-      }
+    boolean useRowCache = isRowCacheEnabled && rectItem.width() > 0 && rowHalfHeight > 0;
+    if (useRowCache) {
+      rowLayerCache.configure(drawnItemCount + 2, rectItem.width(), rowHalfHeight * 2);
+    }
 
-      int iconTop = 0;
+    int drawnDataStartPos = engine.computeFirstDrawnPosition(scrollOffsetY, selectedItemPosition, drawnItemCount);
 
-      if (icon != null) {
-        iconTop = wheelCenterY + (drawnOffsetPos * itemHeight) + scrollOffsetY % itemHeight - icon.getHeight() / 2;
-      }
+    // Numbers are formatted straight into a reused buffer, they have neither items nor icons
+    NumberRangeSource numbers = adapter.getSource() instanceof NumberRangeSource ? (NumberRangeSource) adapter.getSource() : null;
+    int layoutWidth = Math.min(textMaxWidth, rectItem.width() - drawableSize - drawablePadding);
+    boolean usePrecomputedText = isPrecomputedTextEnabled && numbers == null && layoutWidth > 0;
+    if (usePrecomputedText && textLayoutCache.configure(textPaint, layoutWidth)) {
+      iconPrefetchPosition = Integer.MIN_VALUE;
+    }
+    if (numbers == null) {
+      prefetchIcons(drawnDataStartPos, usePrecomputedText);
+    }
 
-      // Judges need to draw different color for current item or not
-      if (textColor != textColorSelected) {
-        canvas.save();
-        canvas.clipRect(rectCurrentItem, Region.Op.DIFFERENCE);
+    for (int drawnDataPos = drawnDataStartPos,
+         drawnOffsetPos = -drawnItemCount / 2;
+         drawnDataPos < drawnDataStartPos + drawnItemCount;
+         drawnDataPos++, drawnOffsetPos++) {
 
-        if (icon != null) {
-          canvas.drawBitmap(icon, rectIcon.left, iconTop, textPaint);
+      int dataPos = resolvePosition(drawnDataPos);
+      if (dataPos >= 0) {
+        String data;
+        int length;
+        Bitmap icon;
+        Layout layout = null;
+        if (numbers != null) {
+          data = null;
+          length = numbers.format(dataPos, numberChars);
+          icon = null;
+        } else {
+          data = labelCache.getLabel(adapter.getSource(), drawnDataPos, dataPos);
+          length = data.length();
+          icon = labelCache.getIcon(drawnDataPos);
+          if (usePrecomputedText) {
+            // Row is drawn as plain text until its layout is ready
+            layout = textLayoutCache.getLayout(drawnDataPos, dataPos, data);
+            if (layout == null) {
+              loadTextLayout(drawnDataPos, dataPos, data);
+            }
+          }
         }
 
-        canvas.drawText(data, rectText.centerX(), mDrawnItemCenterY, textPaint);
-        canvas.restore();
-
-        canvas.save();
-        canvas.clipRect(rectCurrentItem);
+        int rowCenterY = wheelCenterY + (drawnOffsetPos * itemHeight) + scrollOffsetY % itemHeight;
+        int mDrawnItemCenterY = drawnCenterY + (drawnOffsetPos * itemHeight) +
+          scrollOffsetY % itemHeight;
 
+        int halfHeight = rowHalfHeight;
         if (icon != null) {
-          canvas.drawBitmap(icon, rectIcon.left, iconTop, selectedTextPaint);
+          halfHeight = Math.max(halfHeight, icon.getHeight() / 2);
         }
 
-        canvas.drawText(data, rectText.centerX(), mDrawnItemCenterY, selectedTextPaint);
-        canvas.restore();
-      } else {
-        canvas.save();
-        canvas.clipRect(rectItem);
-
-        if (icon != null) {
-          canvas.drawBitmap(icon, rectIcon.left, iconTop, textPaint);
+        // Judges need to draw different color for current item or not
+        if (hasSelectedColor && rowCenterY - halfHeight < rectCurrentItem.bottom && rowCenterY + halfHeight > rectCurrentItem.top) {
+          canvas.save();
+          canvas.clipRect(rectCurrentItem, Region.Op.DIFFERENCE);
+          drawRow(canvas, drawnDataPos, data, length, layout, icon, rowCenterY, mDrawnItemCenterY, false, useRowCache);
+          canvas.restore();
+
+          canvas.save();
+          canvas.clipRect(rectCurrentItem);
+          drawRow(canvas, drawnDataPos, data, length, layout, icon, rowCenterY, mDrawnItemCenterY, true, useRowCache);
+          canvas.restore();
+        } else {
+          drawRow(canvas, drawnDataPos, data, length, layout, icon, rowCenterY, mDrawnItemCenterY, false, useRowCache);
         }
-
-        canvas.drawText(data, rectText.centerX(), mDrawnItemCenterY, textPaint);
-        canvas.restore();
       }
 
       if (DEBUG) {
@@ -435,6 +650,16 @@ public class WheelPicker extends View implements Runnable {
       }
     }
 
+    if (useFade) {
+      canvas.drawRect(rectItem, fadePaint);
+      canvas.restore();
+    }
+    canvas.restore();
+
+    if (isScrubberShown) {
+      drawScrubber(canvas);
+    }
+
     if (DEBUG) {
       textPaint.setColor(0x4433EE33);
       textPaint.setStyle(Paint.Style.FILL);
@@ -443,14 +668,216 @@ public class WheelPicker extends View implements Runnable {
       canvas.drawRect(getWidth() - getPaddingRight(), 0, getWidth(), getHeight(), textPaint);
       canvas.drawRect(0, getHeight() - getPaddingBottom(), getWidth(), getHeight(), textPaint);
     }
+
+    if (metricsListener != null) {
+      metricsListener.onDraw(System.nanoTime() - drawStartNanos);
+    }
+  }
+
+  /**
+   * Request icons and, if {@code precomputeText} is true, text layouts of drawn rows and rows within prefetch margin once
+   * drawn window moves to a new {@code firstPosition}
+   */
+  private void prefetchIcons(int firstPosition, boolean precomputeText) {
+    if (firstPosition == iconPrefetchPosition) {
+      return;
+    }
+    iconPrefetchPosition = firstPosition;
+    iconWindowStart = firstPosition - ICON_PREFETCH_MARGIN;
+    iconWindowEnd = firstPosition + drawnItemCount + ICON_PREFETCH_MARGIN;
+
+    for (int position = iconWindowStart; position < iconWindowEnd; position++) {
+      int dataPos = resolvePosition(position);
+      if (dataPos >= 0 && labelCache.requestIcon(adapter.getSource(), position, dataPos)) {
+        loadIcon(position, labelCache.getItem(adapter.getSource(), position, dataPos));
+      }
+      if (dataPos >= 0 && precomputeText) {
+        String label = labelCache.getLabel(adapter.getSource(), position, dataPos);
+        loadTextLayout(position, dataPos, label);
+      }
+    }
+  }
+
+  private void loadIcon(int position, WheelItem<?> item) {
+    // Loads are reused once applied, so rows coming into view while scrolling allocate nothing
+    IconLoad load = iconLoadPool.pollFirst();
+    if (load == null) {
+      load = new IconLoad();
+    }
+    load.position = position;
+    load.item = item;
+    load.generation = iconGeneration;
+    load.size = drawableSize;
+    WheelExecutors.background().execute(load);
+  }
+
+  /**
+   * Icon of one row, resolved on the background thread and then applied by the same runnable posted to the main thread
+   */
+  private final class IconLoad implements Runnable {
+    int position;
+    WheelItem<?> item;
+    int generation;
+    int size;
+    Bitmap icon;
+    boolean isSkipped;
+    boolean isResolved;
+
+    @Override
+    public void run() {
+      if (!isResolved) {
+        // Skip rows which have left the window while waiting, they are requested again when they come back
+        isSkipped = !isInPrefetchWindow(position);
+        icon = isSkipped ? null : item.getIcon(size);
+        isResolved = true;
+        post(this);
+        return;
+      }
+
+      if (generation == iconGeneration) {
+        if (labelCache.setIcon(position, item, icon)) {
+          invalidate();
+        } else if (isSkipped && isInPrefetchWindow(position)) {
+          // Row has come back before it was skipped, so the window has not requested it again
+          iconPrefetchPosition = Integer.MIN_VALUE;
+          invalidate();
+        }
+      }
+      item = null;
+      icon = null;
+      isResolved = false;
+      iconLoadPool.addLast(this);
+    }
+  }
+
+  /**
+   * @return true if drawn {@code position} is within the window of the last prefetch, safe to call from a background thread
+   */
+  private boolean isInPrefetchWindow(int position) {
+    return position >= iconWindowStart && position < iconWindowEnd;
+  }
+
+  private void invalidateIcons() {
+    iconGeneration++;
+    iconPrefetchPosition = Integer.MIN_VALUE;
+    labelCache.invalidateIcons();
+  }
+
+  /**
+   * @param text
+   *   label of the row, or null if it is in {@link #numberChars}
+   */
+  private void drawRow(Canvas canvas, int position, String text, int length, Layout layout, Bitmap icon, int rowCenterY, int baseline, boolean selected, boolean useRowCache) {
+    Paint paint = selected ? selectedTextPaint : textPaint;
+    if (useRowCache) {
+      Bitmap layer = obtainRowLayer(position, text, length, layout, icon, selected);
+      layerPaint.setAlpha(paint.getAlpha());
+      canvas.drawBitmap(layer, rectItem.left, rowCenterY - layer.getHeight() / 2, layerPaint);
+    } else {
+      drawItem(canvas, text, length, layout, icon, icon != null ? rowCenterY - icon.getHeight() / 2 : 0, baseline, paint);
+    }
+  }
+
+  /**
+   * Get row rendered at full opacity from cache, or render it into a reused bitmap.
+   * Row is rendered as if it was in the center of the wheel, so it can be composited at any offset.
+   */
+  private Bitmap obtainRowLayer(int position, String text, int length, Layout layout, Bitmap icon, boolean selected) {
+    Bitmap layer = rowLayerCache.get(position, icon, selected);
+    if (layer != null) {
+      return layer;
+    }
+
+    layer = rowLayerCache.obtain(position, icon, selected);
+    layer.eraseColor(Color.TRANSPARENT);
+    layerCanvas.setBitmap(layer);
+    layerCanvas.save();
+    layerCanvas.translate(-rectItem.left, layer.getHeight() / 2f - wheelCenterY);
+
+    Paint paint = selected ? selectedTextPaint : textPaint;
+    int alpha = paint.getAlpha();
+    paint.setAlpha(255);
+    drawItem(layerCanvas, text, length, layout, icon, icon != null ? wheelCenterY - icon.getHeight() / 2 : 0, drawnCenterY, paint);
+    paint.setAlpha(alpha);
+
+    layerCanvas.restore();
+    layerCanvas.setBitmap(null);
+    return layer;
+  }
+
+  private void drawItem(Canvas canvas, String text, int length, Layout layout, Bitmap icon, int iconTop, int baseline, Paint paint) {
+    if (icon != null) {
+      canvas.drawBitmap(icon, rectIcon.left, iconTop, paint);
+    }
+    if (layout != null) {
+      drawLayout(canvas, layout, baseline, paint);
+    } else if (text != null) {
+      canvas.drawText(text, rectText.centerX(), baseline, paint);
+    } else {
+      canvas.drawText(numberChars, 0, length, rectText.centerX(), baseline, paint);
+    }
+  }
+
+  /**
+   * Draw precomputed {@code layout} with color and alpha of {@code paint}, layout is only positioned here
+   */
+  private void drawLayout(Canvas canvas, Layout layout, int baseline, Paint paint) {
+    TextPaint layoutPaint = layout.getPaint();
+    layoutPaint.setColorFilter(paint.getColorFilter());
+    layoutPaint.setAlpha(paint.getAlpha());
+
+    canvas.save();
+    canvas.translate(rectText.centerX() - layout.getWidth() / 2f, baseline - layout.getLineBaseline(0));
+    layout.draw(canvas);
+    canvas.restore();
+  }
+
+  /**
+   * Build layout of {@code label} drawn at this {@code position} in background unless it is built or requested already
+   */
+  private void loadTextLayout(final int position, int dataPos, final String label) {
+    final TextLayoutCache.Request request = textLayoutCache.request(position, dataPos, label);
+    if (request == null) {
+      return;
+    }
+    WheelExecutors.background().execute(() -> {
+      // Skip rows which have left the window while waiting, they are requested again when they come back
+      final boolean isSkipped = !isInPrefetchWindow(position);
+      final Layout layout = isSkipped ? null : TextLayoutCache.build(label, request);
+      post(() -> {
+        if (!textLayoutCache.setLayout(position, label, request.generation, layout)) {
+          return;
+        }
+        if (layout != null) {
+          // Rows cached as plain text are rendered again with their layouts
+          rowLayerCache.invalidate();
+          invalidate();
+        } else if (isSkipped && isInPrefetchWindow(position)) {
+          // Row has come back before it was skipped, so the window has not requested it again
+          iconPrefetchPosition = Integer.MIN_VALUE;
+          invalidate();
+        }
+      });
+    });
   }
 
   private boolean isPosInRange(int position) {
     return position >= 0 && position < adapter.getSize();
   }
 
+  /**
+   * @return data position of item drawn at this {@code position}, or -1 if no item is drawn there
+   */
+  private int resolvePosition(int position) {
+    return engine.resolvePosition(position, adapter.getSize());
+  }
+
   @Override
   public boolean onTouchEvent(MotionEvent event) {
+    if (onScrubberTouchEvent(event)) {
+      return true;
+    }
+
     switch (event.getAction()) {
       case MotionEvent.ACTION_DOWN:
         isTouchTriggered = true;
@@ -467,6 +894,7 @@ public class WheelPicker extends View implements Runnable {
         if (!scroller.isFinished()) {
           scroller.abortAnimation();
           isForceFinishScroll = true;
+          scrollOffsetY = engine.normalizeOffset(scrollOffsetY, adapter.getSize());
         }
         downPointY = lastPointY = (int) event.getY();
         break;
@@ -476,9 +904,7 @@ public class WheelPicker extends View implements Runnable {
         }
         isClick = false;
         tracker.addMovement(event);
-        if (null != onWheelChangeListener) {
-          onWheelChangeListener.onWheelScrollStateChanged(SCROLL_STATE_DRAGGING);
-        }
+        setScrollState(SCROLL_STATE_DRAGGING);
 
         // Scroll WheelPicker's content
         float move = event.getY() - lastPointY;
@@ -487,6 +913,7 @@ public class WheelPicker extends View implements Runnable {
         }
         scrollOffsetY += (int) move;
         lastPointY = (int) event.getY();
+        dispatchScrolled();
         invalidate();
 
         break;
@@ -495,16 +922,8 @@ public class WheelPicker extends View implements Runnable {
           getParent().requestDisallowInterceptTouchEvent(false);
         }
         if (isClick && !isForceFinishScroll) {
-          float clickY = event.getY();
-          float difference = clickY - drawnCenterY;
-          if (clickY > drawnCenterY) {
-            difference += itemHeight / 2f;
-          } else {
-            difference -= itemHeight / 2f;
-          }
-
-          int newSelectedPosition = (int) (difference / itemHeight) + currentItemPosition;
-          if (currentItemPosition != newSelectedPosition && newSelectedPosition >= 0 && newSelectedPosition < adapter.getSize()) {
+          int newSelectedPosition = engine.computeClickPosition(event.getY(), drawnCenterY, currentItemPosition, adapter.getSize());
+          if (newSelectedPosition >= 0 && currentItemPosition != newSelectedPosition) {
             setSelectedItemPosition(newSelectedPosition);
           }
           break;
@@ -517,66 +936,51 @@ public class WheelPicker extends View implements Runnable {
         isForceFinishScroll = false;
         int velocity = (int) tracker.getYVelocity();
 
-        if (Math.abs(velocity) > minimumVelocity && !(scrollOffsetY > maxFlingY) && !(scrollOffsetY < minFlingY)) {
-          if (Math.abs(velocity) > QUICK_SCROLL_VELOCITY) {
-            int dy = 0;
-
-            if (velocity > 0) {
-              dy = maxFlingY + computeDistanceToEndPoint(maxFlingY % itemHeight);
-            }
-            if (velocity < 0) {
-              dy = minFlingY + computeDistanceToEndPoint(minFlingY % itemHeight);
-            }
-
-            scroller.startScroll(0, scrollOffsetY, 0, dy, 300);
+        boolean isFling = Math.abs(velocity) > minimumVelocity && engine.isInFlingRange(scrollOffsetY);
+        if (isFling) {
+          if (Math.abs(velocity) > QUICK_SCROLL_VELOCITY && !isCyclic && sectionTable.getCount() > 1) {
+            scroller.startScroll(0, scrollOffsetY, 0, computeSectionScrollDistance(velocity), 300);
+          } else if (Math.abs(velocity) > QUICK_SCROLL_VELOCITY && !isCyclic) {
+            scroller.startScroll(0, scrollOffsetY, 0, engine.computeQuickScrollDistance(velocity, scrollOffsetY), 300);
           } else {
-            scroller.fling(0, scrollOffsetY, 0, velocity, 0, 0, minFlingY, maxFlingY);
-            scroller.setFinalY(scroller.getFinalY() +
-              computeDistanceToEndPoint(scroller.getFinalY() % itemHeight));
+            scroller.fling(0, scrollOffsetY, 0, velocity, 0, 0, engine.getMinFlingY(), engine.getMaxFlingY());
+            scroller.setFinalY(engine.snap(scroller.getFinalY(), scrollOffsetY));
           }
         } else {
-          scroller.startScroll(0, scrollOffsetY, 0,
-            computeDistanceToEndPoint(scrollOffsetY % itemHeight));
+          scroller.startScroll(0, scrollOffsetY, 0, engine.snap(scrollOffsetY, scrollOffsetY) - scrollOffsetY);
         }
 
         // Correct coordinates
-        if (scroller.getFinalY() > maxFlingY) {
-          scroller.setFinalY(maxFlingY);
-        } else if (scroller.getFinalY() < minFlingY) {
-          scroller.setFinalY(minFlingY);
+        if (!engine.isInFlingRange(scroller.getFinalY())) {
+          scroller.setFinalY(engine.clampToFlingRange(scroller.getFinalY()));
         }
 
-        handler.post(this);
-        if (null != tracker) {
-          tracker.recycle();
-          tracker = null;
+        if (metricsListener != null && isFling) {
+          metricsListener.onFling(velocity, scroller.getFinalY() - scrollOffsetY);
         }
+
+        postAnimationTick();
+        // Tracker is kept for the next gesture and released when the wheel is detached
+        tracker.clear();
         break;
       case MotionEvent.ACTION_CANCEL:
         if (null != getParent()) {
           getParent().requestDisallowInterceptTouchEvent(false);
         }
         if (null != tracker) {
-          tracker.recycle();
-          tracker = null;
+          tracker.clear();
+        }
+        if (scrollState == SCROLL_STATE_DRAGGING) {
+          // Settle on the nearest item, so dragging always ends in idle state
+          isForceFinishScroll = false;
+          scroller.startScroll(0, scrollOffsetY, 0, engine.snap(scrollOffsetY, scrollOffsetY) - scrollOffsetY);
+          postAnimationTick();
         }
         break;
     }
     return true;
   }
 
-  private int computeDistanceToEndPoint(int remainder) {
-    if (Math.abs(remainder) > itemHeight / 2) {
-      if (scrollOffsetY < 0) {
-        return -itemHeight - remainder;
-      } else {
-        return itemHeight - remainder;
-      }
-    } else {
-      return -remainder;
-    }
-  }
-
   @Override
   public void run() {
     if (null == adapter || adapter.getSize() == 0) {
@@ -588,12 +992,11 @@ public class WheelPicker extends View implements Runnable {
         return;
       }
 
-      int position = (-scrollOffsetY / itemHeight + selectedItemPosition) % adapter.getSize();
-      position = position < 0 ? position + adapter.getSize() : position;
+      int position = engine.computePosition(scrollOffsetY, selectedItemPosition, adapter.getSize());
       int difference = scrollOffsetY % itemHeight;
 
       if (DEBUG) {
-        Log.i(TAG, position + ":" + adapter.getData().get(position) + ":" + scrollOffsetY);
+        Log.i(TAG, position + ":" + adapter.getItem(position) + ":" + scrollOffsetY);
       }
 
       currentItemPosition = position;
@@ -602,23 +1005,190 @@ public class WheelPicker extends View implements Runnable {
       }
       if (null != onWheelChangeListener && isTouchTriggered) {
         onWheelChangeListener.onWheelSelected(position);
-        onWheelChangeListener.onWheelScrollStateChanged(SCROLL_STATE_IDLE);
       }
 
       if (difference != 0) {
         scroller.startScroll(0, scrollOffsetY, 0, -difference);
       } else {
         setSelectedItemPosition(position, false);
+        setScrollState(SCROLL_STATE_IDLE);
       }
     }
     if (scroller.computeScrollOffset()) {
-      if (null != onWheelChangeListener) {
-        onWheelChangeListener.onWheelScrollStateChanged(SCROLL_STATE_SCROLLING);
+      if (metricsListener != null) {
+        reportAnimationFrame();
       }
+      setScrollState(SCROLL_STATE_SCROLLING);
       scrollOffsetY = scroller.getCurrY();
-      postInvalidate();
-      handler.postDelayed(this, 16);
+      dispatchScrolled();
+      invalidate();
+      postOnAnimation(this);
+    }
+  }
+
+  /**
+   * Notify listener only about actual transitions between scroll states
+   */
+  private void setScrollState(int state) {
+    if (state == scrollState) {
+      return;
+    }
+    if (scrollState == SCROLL_STATE_IDLE) {
+      lastScrollEventTime = 0;
+      lastScrollEventItem = computeScrollEventItem();
+      isScrollEventPending = false;
+    } else if (state == SCROLL_STATE_IDLE && isScrollEventPending) {
+      // Last offset dropped by throttling is delivered before the wheel stops, so listeners see where it stopped
+      isScrollEventPending = false;
+      if (null != onWheelChangeListener) {
+        onWheelChangeListener.onWheelScrolled(pendingScrollEventOffset);
+      }
+    }
+    scrollState = state;
+    if (null != onWheelChangeListener) {
+      onWheelChangeListener.onWheelScrollStateChanged(state);
+    }
+  }
+
+  private void dispatchScrolled() {
+    if (null == onWheelChangeListener) {
+      return;
+    }
+
+    if (scrollEventMode == SCROLL_EVENTS_PER_ITEM) {
+      int item = computeScrollEventItem();
+      if (item == lastScrollEventItem) {
+        return;
+      }
+      lastScrollEventItem = item;
+    } else if (scrollEventMode == SCROLL_EVENTS_THROTTLED) {
+      long time = SystemClock.uptimeMillis();
+      if (time - lastScrollEventTime < scrollEventInterval) {
+        isScrollEventPending = true;
+        pendingScrollEventOffset = -scrollOffsetY;
+        return;
+      }
+      lastScrollEventTime = time;
+      isScrollEventPending = false;
+    }
+
+    onWheelChangeListener.onWheelScrolled(-scrollOffsetY);
+  }
+
+  /**
+   * @return index of the item nearest to the center relative to selected item, or 0 before items are measured
+   */
+  private int computeScrollEventItem() {
+    return itemHeight == 0 ? 0 : Math.floorDiv(scrollOffsetY + itemHeight / 2, itemHeight);
+  }
+
+  /**
+   * Schedule next animation step on the display frame clock, so scroll offset is computed once per vsync
+   */
+  private void postAnimationTick() {
+    lastFrameTimeNanos = 0;
+    removeCallbacks(this);
+    postOnAnimation(this);
+  }
+
+  private void reportAnimationFrame() {
+    long frameTimeNanos = System.nanoTime();
+    boolean isLate = lastFrameTimeNanos != 0 && frameTimeNanos - lastFrameTimeNanos > frameIntervalNanos * 3 / 2;
+    lastFrameTimeNanos = frameTimeNanos;
+    metricsListener.onAnimationFrame(isLate);
+  }
+
+  private void updateFrameInterval() {
+    Display display = getDisplay();
+    float refreshRate = display != null ? display.getRefreshRate() : 0;
+    frameIntervalNanos = refreshRate > 0 ? (long) (1_000_000_000 / refreshRate) : DEFAULT_FRAME_INTERVAL_NANOS;
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    if (metricsListener != null) {
+      updateFrameInterval();
+    }
+    if (!scroller.isFinished()) {
+      postAnimationTick();
+    }
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    removeCallbacks(this);
+    rowLayerCache.release();
+    if (null != tracker) {
+      tracker.recycle();
+      tracker = null;
+    }
+    super.onDetachedFromWindow();
+  }
+
+  @Override
+  protected Parcelable onSaveInstanceState() {
+    SavedState state = new SavedState(super.onSaveInstanceState());
+    state.selectedItemPosition = selectedItemPosition;
+    state.scrollOffsetY = scrollOffsetY;
+    state.itemCount = adapter != null ? adapter.getSize() : -1;
+    state.dataFingerprint = adapter != null ? adapter.computeFingerprint() : 0;
+    state.textMaxWidth = textWidthCache.isValid() ? textWidthCache.getMaxWidth() : restoredTextMaxWidth;
+    // Sampled fingerprint is enough for position, but width is trusted only if every label is the same
+    state.labelHash = textWidthCache.isValid() ? textWidthCache.getLabelHash() : restoredLabelHash;
+    state.textSize = textPaint.getTextSize();
+    state.typefaceStyle = getTypefaceStyle();
+    return state;
+  }
+
+  @Override
+  protected void onRestoreInstanceState(Parcelable state) {
+    if (!(state instanceof SavedState)) {
+      super.onRestoreInstanceState(state);
+      return;
     }
+
+    SavedState savedState = (SavedState) state;
+    super.onRestoreInstanceState(savedState.getSuperState());
+
+    // Saved position and width apply only to the same data
+    if (adapter == null || adapter.getSize() != savedState.itemCount || adapter.computeFingerprint() != savedState.dataFingerprint) {
+      return;
+    }
+
+    int oldTextMaxWidth = textMaxWidth;
+    int oldTextMaxHeight = textMaxHeight;
+    if (savedState.textMaxWidth != NO_WIDTH && !textWidthCache.isValid()
+      && savedState.textSize == textPaint.getTextSize() && savedState.typefaceStyle == getTypefaceStyle()
+      && TextWidthCache.computeLabelHash(adapter.getSource()) == savedState.labelHash) {
+      restoredTextMaxWidth = savedState.textMaxWidth;
+      restoredLabelHash = savedState.labelHash;
+      computeTextSize();
+    }
+
+    cancelScroll();
+    selectedItemPosition = currentItemPosition = engine.clampPosition(savedState.selectedItemPosition, adapter.getSize());
+    scrollOffsetY = savedState.scrollOffsetY;
+    resetScroller(scrollOffsetY);
+    computeFlingLimitY();
+    if (itemHeight > 0 && scrollOffsetY % itemHeight != 0) {
+      // State was saved while scrolling, settle on the nearest item
+      scroller.startScroll(0, scrollOffsetY, 0, engine.snap(scrollOffsetY, scrollOffsetY) - scrollOffsetY);
+      postAnimationTick();
+    } else if (scrollOffsetY != 0) {
+      currentItemPosition = engine.computePosition(scrollOffsetY, selectedItemPosition, adapter.getSize());
+    }
+    if (scroller.isFinished()) {
+      // Restored selection reaches listeners and the group like a settled scroll, otherwise it is reported once settled
+      adapter.onItemSelected(currentItemPosition);
+    }
+    requestLayoutIfContentSizeChanged(oldTextMaxWidth, oldTextMaxHeight);
+    invalidate();
+  }
+
+  private int getTypefaceStyle() {
+    Typeface typeface = textPaint.getTypeface();
+    return typeface != null ? typeface.getStyle() : 0;
   }
 
   /**
@@ -652,38 +1222,212 @@ public class WheelPicker extends View implements Runnable {
   void setSelectedItemPosition(int position, final boolean animated) {
     isTouchTriggered = false;
     if (animated && scroller.isFinished()) { // We go non-animated regardless of "animated" parameter if scroller is in motion
-      int itemDifference = position - currentItemPosition;
+      int itemDifference = engine.computeItemDifference(position, currentItemPosition, adapter.getSize());
       if (itemDifference == 0) {
         return;
       }
 
       scroller.startScroll(0, scroller.getCurrY(), 0, (-itemDifference) * itemHeight);
-      handler.post(this);
+      postAnimationTick();
     } else {
       if (!scroller.isFinished()) {
         scroller.abortAnimation();
       }
-      position = Math.min(position, adapter.getSize() - 1);
-      position = Math.max(position, 0);
+      position = engine.clampPosition(position, adapter.getSize());
       selectedItemPosition = position;
       currentItemPosition = position;
       scrollOffsetY = 0;
-      scroller = newScroller(scrollOffsetY);
+      resetScroller(scrollOffsetY);
       computeFlingLimitY();
-      requestLayout();
+      // Selection doesn't affect measured size, only drawing
       invalidate();
     }
   }
 
+  /**
+   * Select item at this {@code position} after data has changed around it. A running drag or fling keeps going with the
+   * same offset, only the position it is measured from is shifted, otherwise selection is set without animation.
+   */
+  void moveSelectedItemPosition(int position) {
+    if (scrollState == SCROLL_STATE_IDLE && scroller.isFinished()) {
+      setSelectedItemPosition(position, false);
+      return;
+    }
+    int difference = engine.clampPosition(position, adapter.getSize()) - currentItemPosition;
+    selectedItemPosition += difference;
+    currentItemPosition += difference;
+    onContentChanged();
+  }
+
   int getCurrentItemPosition() {
     return currentItemPosition;
   }
 
+  /**
+   * @return true if the wheel is animating towards an item, selection is reported once it settles
+   */
+  boolean isScrollerRunning() {
+    return !scroller.isFinished();
+  }
+
+  /**
+   * Animate selection to this {@code position} over at most {@link #MAX_ANIMATED_ITEM_COUNT} items. Farther items are
+   * jumped to without animation first, so the scroll is short however far the item is.
+   */
+  void scrollToPosition(int position) {
+    if (adapter == null || adapter.getSize() == 0) {
+      return;
+    }
+    if (!scroller.isFinished()) {
+      // Stop at the item in the center, so the last part of the way is animated from there
+      setSelectedItemPosition(engine.computePosition(scrollOffsetY, selectedItemPosition, adapter.getSize()), false);
+    }
+
+    position = engine.clampPosition(position, adapter.getSize());
+    int itemDifference = engine.computeItemDifference(position, currentItemPosition, adapter.getSize());
+    if (Math.abs(itemDifference) > MAX_ANIMATED_ITEM_COUNT) {
+      setSelectedItemPosition(position - Integer.signum(itemDifference) * MAX_ANIMATED_ITEM_COUNT, false);
+    }
+    setSelectedItemPosition(position, true);
+  }
+
+  /**
+   * Handle drag along the scrubber at the end edge of the wheel, which selects sections directly
+   *
+   * @return true if event belongs to the scrubber
+   */
+  private boolean onScrubberTouchEvent(MotionEvent event) {
+    switch (event.getActionMasked()) {
+      case MotionEvent.ACTION_DOWN:
+        if (!isScrubberShown || !rectScrubber.contains((int) event.getX(), (int) event.getY())) {
+          return false;
+        }
+        if (null != getParent()) {
+          getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        removeCallbacks(this);
+        isScrubbing = true;
+        isForceFinishScroll = false;
+        setScrollState(SCROLL_STATE_DRAGGING);
+        scrubTo(event.getY());
+        return true;
+      case MotionEvent.ACTION_MOVE:
+        if (isScrubbing) {
+          scrubTo(event.getY());
+        }
+        return isScrubbing;
+      case MotionEvent.ACTION_UP:
+      case MotionEvent.ACTION_CANCEL:
+        if (!isScrubbing) {
+          return false;
+        }
+        isScrubbing = false;
+        if (null != getParent()) {
+          getParent().requestDisallowInterceptTouchEvent(false);
+        }
+        adapter.onItemSelected(currentItemPosition);
+        if (null != onWheelChangeListener) {
+          onWheelChangeListener.onWheelSelected(currentItemPosition);
+        }
+        setScrollState(SCROLL_STATE_IDLE);
+        invalidate();
+        return true;
+      default:
+        return isScrubbing;
+    }
+  }
+
+  /**
+   * Jump to start of the section under scrubber at {@code y}, no intermediate frames are rendered
+   */
+  private void scrubTo(float y) {
+    float fraction = (y - rectItem.top) / Math.max(1, rectItem.height());
+    int position = sectionTable.getStart(sectionTable.getSectionAt(fraction));
+    if (position != currentItemPosition || scrollOffsetY != 0) {
+      setSelectedItemPosition(position, false);
+    }
+  }
+
+  /**
+   * @return scroll distance of a quick fling to the start of previous or next section
+   */
+  private int computeSectionScrollDistance(int velocity) {
+    int position = engine.computePosition(scrollOffsetY, selectedItemPosition, adapter.getSize());
+    int section = sectionTable.getSection(position);
+    if (velocity < 0) {
+      section = Math.min(section + 1, sectionTable.getCount() - 1);
+    } else if (sectionTable.getStart(section) == position) {
+      section = Math.max(section - 1, 0);
+    }
+    int targetOffsetY = (selectedItemPosition - sectionTable.getStart(section)) * itemHeight;
+    return targetOffsetY - scrollOffsetY;
+  }
+
+  private void drawScrubber(Canvas canvas) {
+    int sectionCount = sectionTable.getCount();
+    int thumbHeight = Math.max(rectScrubber.height() / sectionCount, scrubberWidth / 2);
+    int section = sectionTable.getSection(currentItemPosition);
+    int thumbTop = rectScrubber.top + (int) ((long) (rectScrubber.height() - thumbHeight) * section / (sectionCount - 1));
+    rectScrubberThumb.set(rectScrubber.right - Math.max(1, scrubberWidth / 4), thumbTop, rectScrubber.right, thumbTop + thumbHeight);
+
+    scrubberPaint.setColor(textColor);
+    scrubberPaint.setAlpha(isScrubbing ? 0xCC : 0x44);
+    canvas.drawRect(rectScrubberThumb, scrubberPaint);
+  }
+
+  /**
+   * Set sections of data used by quick flings, which then stop at section starts, and by the scrubber if it is enabled
+   * with {@link #setScrubberWidth(int)}. Start positions are precomputed here, so indexer is not queried while scrolling.
+   * Pass null to remove sections.
+   *
+   * @see WheelSectionIndexer
+   */
+  public void setSectionIndexer(SectionIndexer indexer) {
+    boolean hadScrubber = hasScrubber();
+    sectionIndexer = indexer;
+    updateSections();
+    if (hadScrubber != hasScrubber()) {
+      requestLayout();
+    }
+    invalidate();
+  }
+
+  public SectionIndexer getSectionIndexer() {
+    return sectionIndexer;
+  }
+
+  /**
+   * Set width of the scrubber, which is shown at the end edge of the wheel beside its content if there are at least two
+   * sections, dragging along it selects sections directly. Wrapped width of the wheel grows by the scrubber width, the
+   * scrubber is hidden if content does not fit beside it. Disabled by default, pass 0 to disable.
+   */
+  public void setScrubberWidth(@Px int width) {
+    scrubberWidth = Math.max(0, width);
+    updateContentPositions();
+    requestLayout();
+    invalidate();
+  }
+
+  @Px
+  public int getScrubberWidth() {
+    return scrubberWidth;
+  }
+
+  private boolean hasScrubber() {
+    return scrubberWidth > 0 && sectionTable.getCount() > 1 && !isCyclic;
+  }
+
+  private void updateSections() {
+    sectionTable.set(sectionIndexer, adapter != null ? adapter.getSize() : 0);
+    updateContentPositions();
+  }
+
   void setAdapter(WheelAdapter<?> adapter) {
     if (null == adapter) {
       throw new NullPointerException("WheelAdapter can not be null!");
     }
-    this.adapter = adapter;
+    long bindStartNanos = metricsListener != null ? System.nanoTime() : 0;
+    attachAdapter(adapter);
 
     if (adapter.getSize() > 0 && (selectedItemPosition > this.adapter.getSize() - 1 || currentItemPosition > this.adapter.getSize() - 1)) {
       selectedItemPosition = currentItemPosition = this.adapter.getSize() - 1;
@@ -691,13 +1435,194 @@ public class WheelPicker extends View implements Runnable {
       selectedItemPosition = currentItemPosition;
     }
     scrollOffsetY = -itemHeight * selectedItemPosition;
-    scroller = newScroller(scrollOffsetY);
+    resetScroller(scrollOffsetY);
+    invalidateContent();
+    int oldTextMaxWidth = textMaxWidth;
+    int oldTextMaxHeight = textMaxHeight;
     computeTextSize();
     computeFlingLimitY();
-    requestLayout();
+    updateSections();
+    requestLayoutIfContentSizeChanged(oldTextMaxWidth, oldTextMaxHeight);
+    invalidate();
+
+    if (metricsListener != null) {
+      metricsListener.onDataBound(System.nanoTime() - bindStartNanos, adapter.getSize());
+    }
+  }
+
+  /**
+   * Rebind wheel to {@code adapter} and select item with this {@code position} without animation.
+   * Caches are kept if wheel is rebound to the same data, layout is requested only if measured content size changes.
+   */
+  void setAdapter(WheelAdapter<?> adapter, int position) {
+    if (null == adapter) {
+      throw new NullPointerException("WheelAdapter can not be null!");
+    }
+    long bindStartNanos = metricsListener != null ? System.nanoTime() : 0;
+    boolean isSameData = adapter == this.adapter && adapter.getDataGeneration() == boundDataGeneration;
+
+    cancelScroll();
+    attachAdapter(adapter);
+
+    position = engine.clampPosition(position, adapter.getSize());
+    selectedItemPosition = currentItemPosition = position;
+    scrollOffsetY = 0;
+    resetScroller(scrollOffsetY);
+    if (!isSameData) {
+      invalidateContent();
+    }
+    onContentChanged();
+
+    if (metricsListener != null) {
+      metricsListener.onDataBound(System.nanoTime() - bindStartNanos, adapter.getSize());
+    }
+  }
+
+  private void attachAdapter(WheelAdapter<?> adapter) {
+    if (this.adapter != null && this.adapter != adapter) {
+      this.adapter.onUnbound(this);
+    }
+    this.adapter = adapter;
+    boundDataGeneration = adapter.getDataGeneration();
+  }
+
+  private void invalidateContent() {
+    labelCache.invalidate();
+    invalidateIcons();
+    invalidateTextWidths();
+  }
+
+  /**
+   * Stop scrolling and cancel pending animation frames, e.g. when a list row holding this wheel is recycled.
+   * Wheel settles on the item in its center without notifying listeners. Adapter, caches, scroller and velocity tracker
+   * are kept, so the wheel can be rebound cheaply by {@link WheelAdapter#bind(WheelPicker, int)}.
+   */
+  public void recycle() {
+    cancelScroll();
+    if (adapter != null && adapter.getSize() > 0 && itemHeight > 0) {
+      selectedItemPosition = currentItemPosition = engine.computePosition(scrollOffsetY, selectedItemPosition, adapter.getSize());
+      scrollOffsetY = 0;
+      resetScroller(scrollOffsetY);
+      computeFlingLimitY();
+      invalidate();
+    }
+  }
+
+  private void cancelScroll() {
+    removeCallbacks(this);
+    if (!scroller.isFinished()) {
+      scroller.abortAnimation();
+    }
+    if (null != tracker) {
+      tracker.clear();
+    }
+    isForceFinishScroll = false;
+    isTouchTriggered = false;
+    isScrollEventPending = false;
+    scrollState = SCROLL_STATE_IDLE;
+  }
+
+  void onItemRangeChanged(int start, int count) {
+    labelCache.invalidate(start, count);
+    if (textWidthCache.isValid()) {
+      textWidthCache.onRangeChanged(adapter.getSource(), textPaint, start, count);
+    } else {
+      invalidateTextWidths();
+    }
+    iconPrefetchPosition = Integer.MIN_VALUE;
+    onContentChanged();
+  }
+
+  void onItemRangeInserted(int start, int count) {
+    if (isCyclic) {
+      labelCache.invalidate();
+    } else {
+      labelCache.onRangeInserted(start, count);
+    }
+    if (textWidthCache.isValid()) {
+      textWidthCache.onRangeInserted(adapter.getSource(), textPaint, start, count);
+    } else {
+      invalidateTextWidths();
+    }
+    iconPrefetchPosition = Integer.MIN_VALUE;
+
+    // Keep selected item selected
+    if (adapter.getSize() > count && start <= currentItemPosition) {
+      selectedItemPosition += count;
+      currentItemPosition += count;
+    }
+    onContentChanged();
+  }
+
+  void onItemRangeRemoved(int start, int count) {
+    if (isCyclic) {
+      labelCache.invalidate();
+    } else {
+      labelCache.onRangeRemoved(start, count);
+    }
+    if (textWidthCache.isValid()) {
+      textWidthCache.onRangeRemoved(start, count);
+    } else {
+      invalidateTextWidths();
+    }
+    iconPrefetchPosition = Integer.MIN_VALUE;
+
+    if (start + count <= currentItemPosition) {
+      // Keep selected item selected
+      selectedItemPosition -= count;
+      currentItemPosition -= count;
+    } else if (start <= currentItemPosition) {
+      // Selected item was removed, select the nearest remaining one
+      int position = Math.max(Math.min(start, adapter.getSize() - 1), 0);
+      selectedItemPosition = currentItemPosition = position;
+      scrollOffsetY = 0;
+      resetScroller(scrollOffsetY);
+      adapter.onItemSelected(position);
+    }
+    onContentChanged();
+  }
+
+  /**
+   * Defer content updates caused by data changes until {@link #endBatch()}
+   */
+  void beginBatch() {
+    batchDepth++;
+  }
+
+  void endBatch() {
+    if (--batchDepth == 0 && isContentChangePending) {
+      isContentChangePending = false;
+      onContentChanged();
+    }
+  }
+
+  /**
+   * Apply changed data without resetting scroll position, layout is requested only if measured content size has changed
+   */
+  private void onContentChanged() {
+    if (batchDepth > 0) {
+      isContentChangePending = true;
+      return;
+    }
+
+    int oldTextMaxWidth = textMaxWidth;
+    int oldTextMaxHeight = textMaxHeight;
+    computeTextSize();
+    computeFlingLimitY();
+    updateSections();
+    requestLayoutIfContentSizeChanged(oldTextMaxWidth, oldTextMaxHeight);
     invalidate();
   }
 
+  /**
+   * Request layout only if measured content size has changed, scroll and selection changes must only invalidate drawing
+   */
+  private void requestLayoutIfContentSizeChanged(int oldTextMaxWidth, int oldTextMaxHeight) {
+    if (textMaxWidth != oldTextMaxWidth || textMaxHeight != oldTextMaxHeight) {
+      requestLayout();
+    }
+  }
+
   /**
    * Set items of WheelPicker if has same width
    * WheelPicker will traverse the data source to calculate each data text width to find out the
@@ -727,10 +1652,63 @@ public class WheelPicker extends View implements Runnable {
     return hasSameWidth;
   }
 
+  /**
+   * Set count of items starting from which text widths of data source are measured on a background thread
+   * Until measurement is finished WheelPicker keeps its previous width, then it is laid out again with the
+   * measured maximum width. Data source must be safe to read from a background thread.
+   * By default, text widths are always measured on the UI thread.
+   */
+  public void setAsyncMeasurementThreshold(int count) {
+    asyncMeasurementThreshold = count;
+  }
+
+  public int getAsyncMeasurementThreshold() {
+    return asyncMeasurementThreshold;
+  }
+
   public void setOnWheelChangeListener(OnWheelChangeListener listener) {
     onWheelChangeListener = listener;
   }
 
+  /**
+   * Set listener of draw, measure, animation and rebind metrics, or null to stop collecting them.
+   * While no listener is set metrics are not collected at all.
+   */
+  public void setMetricsListener(WheelMetricsListener listener) {
+    metricsListener = listener;
+    if (listener != null) {
+      updateFrameInterval();
+    }
+  }
+
+  public WheelMetricsListener getMetricsListener() {
+    return metricsListener;
+  }
+
+  /**
+   * Set how often {@link OnWheelChangeListener#onWheelScrolled(int)} is invoked while scrolling, one of
+   * {@link #SCROLL_EVENTS_PER_FRAME}, {@link #SCROLL_EVENTS_PER_ITEM} or {@link #SCROLL_EVENTS_THROTTLED}
+   * By default, it is invoked on every frame.
+   */
+  public void setScrollEventMode(int mode) {
+    scrollEventMode = mode;
+  }
+
+  public int getScrollEventMode() {
+    return scrollEventMode;
+  }
+
+  /**
+   * Set minimal interval between {@link OnWheelChangeListener#onWheelScrolled(int)} calls in {@link #SCROLL_EVENTS_THROTTLED} mode
+   */
+  public void setScrollEventInterval(long millis) {
+    scrollEventInterval = millis;
+  }
+
+  public long getScrollEventInterval() {
+    return scrollEventInterval;
+  }
+
   public String getMaximumWidthText() {
     return maxWidthText;
   }
@@ -769,12 +1747,75 @@ public class WheelPicker extends View implements Runnable {
   /**
    * Set whether WheelPicker has atmospheric or not
    * WheelPicker's items will be transparent from center to ends if atmospheric display
+   * Fade is applied with a single mask over the content region, which is drawn into an offscreen layer then.
    */
   public void setAtmospheric(boolean hasAtmospheric) {
     this.hasAtmospheric = hasAtmospheric;
     invalidate();
   }
 
+  /**
+   * Set whether rows are rendered once into cached bitmaps and only composited at the current offset while scrolling
+   * This saves rasterizing text and icons of every row on every frame of a fling at the cost of a bitmap per drawn row.
+   * Cached rows are rendered again when data, text paints or sizes change.
+   */
+  public void setRowCacheEnabled(boolean enabled) {
+    isRowCacheEnabled = enabled;
+    if (!enabled) {
+      rowLayerCache.release();
+    }
+    invalidate();
+  }
+
+  /**
+   * Draw labels from text layouts which are shaped on a background thread and cached per item, labels wider than the
+   * wheel are ellipsized. Useful for complex scripts and long labels, rows are drawn as plain text until their layouts are
+   * ready. Layouts are built in background on all releases, since Android P text is shaped into PrecomputedText first.
+   */
+  public void setPrecomputedTextEnabled(boolean enabled) {
+    isPrecomputedTextEnabled = enabled;
+    textLayoutCache.invalidate();
+    rowLayerCache.invalidate();
+    iconPrefetchPosition = Integer.MIN_VALUE;
+    invalidate();
+  }
+
+  public boolean isPrecomputedTextEnabled() {
+    return isPrecomputedTextEnabled;
+  }
+
+  public boolean isRowCacheEnabled() {
+    return isRowCacheEnabled;
+  }
+
+  /**
+   * Set whether WheelPicker is cyclic or not
+   * Cyclic WheelPicker wraps around its data, so scrolling past the last item continues from the first one and vice versa.
+   * Data is not duplicated, drawn positions are mapped to data positions on the fly.
+   */
+  public void setCyclic(boolean isCyclic) {
+    boolean hadScrubber = hasScrubber();
+    this.isCyclic = isCyclic;
+    engine.setCyclic(isCyclic);
+    labelCache.invalidate();
+    iconPrefetchPosition = Integer.MIN_VALUE;
+    if (adapter != null) {
+      computeFlingLimitY();
+    }
+    if (hadScrubber != hasScrubber()) {
+      updateContentPositions();
+      requestLayout();
+    }
+    invalidate();
+  }
+
+  /**
+   * Whether WheelPicker is cyclic or not
+   */
+  public boolean isCyclic() {
+    return isCyclic;
+  }
+
   /**
    * Whether WheelPicker has atmospheric or not
    */
@@ -796,6 +1837,7 @@ public class WheelPicker extends View implements Runnable {
     if (selectedTextPaint != null) {
       selectedTextPaint.setTypeface(tf);
     }
+    invalidateTextWidths();
     computeTextSize();
     requestLayout();
     invalidate();
@@ -803,7 +1845,7 @@ public class WheelPicker extends View implements Runnable {
 
   public interface OnWheelChangeListener {
     /**
-     * Invoke when WheelPicker scroll stopped
+     * Invoke when WheelPicker is scrolled, how often is set by {@link WheelPicker#setScrollEventMode(int)}
      * WheelPicker will return a distance offset which between current scroll position and
      * initial position, this offset is a positive or a negative, positive means WheelPicker is
      * scrolling from bottom to top, negative means WheelPicker is scrolling from top to bottom
@@ -848,11 +1890,12 @@ public class WheelPicker extends View implements Runnable {
     return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value, getContext().getResources().getDisplayMetrics());
   }
 
-  private Scroller newScroller(int currentOffsetY) {
-    Scroller scroller = new Scroller(getContext());
+  /**
+   * Stop scroller at this offset without allocating a new one, settling happens on every fling so it must not allocate
+   */
+  private void resetScroller(int currentOffsetY) {
     scroller.setFinalY(currentOffsetY);
     scroller.abortAnimation();
-    return scroller;
   }
 
   public ColorStateList getColorStateList(TypedArray typedArray, int index) {
@@ -867,4 +1910,61 @@ public class WheelPicker extends View implements Runnable {
     }
     return typedArray.getColorStateList(index);
   }
-}
\ No newline at end of file
+
+  static final class SavedState extends BaseSavedState {
+    int selectedItemPosition;
+    int scrollOffsetY;
+    int itemCount;
+    int dataFingerprint;
+    int textMaxWidth;
+    int labelHash;
+    float textSize;
+    int typefaceStyle;
+
+    SavedState(Parcelable superState) {
+      super(superState);
+    }
+
+    SavedState(Parcel source, ClassLoader loader) {
+      super(source, loader);
+      selectedItemPosition = source.readInt();
+      scrollOffsetY = source.readInt();
+      itemCount = source.readInt();
+      dataFingerprint = source.readInt();
+      textMaxWidth = source.readInt();
+      labelHash = source.readInt();
+      textSize = source.readFloat();
+      typefaceStyle = source.readInt();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+      super.writeToParcel(dest, flags);
+      dest.writeInt(selectedItemPosition);
+      dest.writeInt(scrollOffsetY);
+      dest.writeInt(itemCount);
+      dest.writeInt(dataFingerprint);
+      dest.writeInt(textMaxWidth);
+      dest.writeInt(labelHash);
+      dest.writeFloat(textSize);
+      dest.writeInt(typefaceStyle);
+    }
+
+    public static final Creator<SavedState> CREATOR = new ClassLoaderCreator<SavedState>() {
+      @Override
+      public SavedState createFromParcel(Parcel source, ClassLoader loader) {
+        return new SavedState(source, loader);
+      }
+
+      @Override
+      public SavedState createFromParcel(Parcel source) {
+        return new SavedState(source, null);
+      }
+
+      @Override
+      public SavedState[] newArray(int size) {
+        return new SavedState[size];
+      }
+    };
+  }
+}
@@ -0,0 +1,179 @@
+package com.minyushov.wheel;
+
+/**
+ * Platform-independent scroll, fling and snap math of {@link WheelPicker}.
+ * Scroll offset is a distance in pixels between the selected item and the item which is currently in the center of the
+ * wheel, it is negative when the wheel is scrolled towards the end of data. Engine has no Android dependencies, so its
+ * per-frame math can be tested and benchmarked on a plain JVM.
+ */
+final class WheelScrollEngine {
+  private int itemHeight;
+  private boolean isCyclic;
+
+  private int minFlingY;
+  private int maxFlingY;
+
+  void setItemHeight(int itemHeight) {
+    this.itemHeight = itemHeight;
+  }
+
+  int getItemHeight() {
+    return itemHeight;
+  }
+
+  void setCyclic(boolean isCyclic) {
+    this.isCyclic = isCyclic;
+  }
+
+  boolean isCyclic() {
+    return isCyclic;
+  }
+
+  int getMinFlingY() {
+    return minFlingY;
+  }
+
+  int getMaxFlingY() {
+    return maxFlingY;
+  }
+
+  /**
+   * Compute range of scroll offsets which keep the wheel within its data when {@code currentPosition} is selected
+   */
+  void computeFlingLimits(int currentPosition, int itemCount) {
+    if (isCyclic) {
+      // Wheel wraps, halves keep limit arithmetic from overflowing
+      minFlingY = Integer.MIN_VALUE / 2;
+      maxFlingY = Integer.MAX_VALUE / 2;
+      return;
+    }
+
+    int currentItemOffset = currentPosition * itemHeight;
+    minFlingY = -itemHeight * (itemCount - 1) + currentItemOffset;
+    maxFlingY = currentItemOffset;
+  }
+
+  boolean isInFlingRange(int offsetY) {
+    return offsetY >= minFlingY && offsetY <= maxFlingY;
+  }
+
+  int clampToFlingRange(int offsetY) {
+    return Math.max(minFlingY, Math.min(maxFlingY, offsetY));
+  }
+
+  /**
+   * @param remainder
+   *   distance between an offset and the nearest item boundary towards zero
+   * @return distance to add to that offset to land on the center of an item
+   */
+  int computeDistanceToEndPoint(int remainder, int scrollOffsetY) {
+    if (Math.abs(remainder) > itemHeight / 2) {
+      if (scrollOffsetY < 0) {
+        return -itemHeight - remainder;
+      } else {
+        return itemHeight - remainder;
+      }
+    } else {
+      return -remainder;
+    }
+  }
+
+  /**
+   * @return {@code offsetY} moved to the center of an item
+   */
+  int snap(int offsetY, int scrollOffsetY) {
+    return offsetY + computeDistanceToEndPoint(offsetY % itemHeight, scrollOffsetY);
+  }
+
+  /**
+   * @return scroll distance of a quick fling with this {@code velocity} towards the first or the last item
+   */
+  int computeQuickScrollDistance(int velocity, int scrollOffsetY) {
+    if (velocity > 0) {
+      return snap(maxFlingY, scrollOffsetY);
+    } else if (velocity < 0) {
+      return snap(minFlingY, scrollOffsetY);
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * @return data position of item in the center of the wheel at this {@code scrollOffsetY}
+   */
+  int computePosition(int scrollOffsetY, int selectedPosition, int itemCount) {
+    int position = (-scrollOffsetY / itemHeight + selectedPosition) % itemCount;
+    return position < 0 ? position + itemCount : position;
+  }
+
+  /**
+   * @return drawn position of the first of {@code drawnItemCount} rows drawn at this {@code scrollOffsetY}
+   */
+  int computeFirstDrawnPosition(int scrollOffsetY, int selectedPosition, int drawnItemCount) {
+    return -scrollOffsetY / itemHeight - drawnItemCount / 2 + selectedPosition;
+  }
+
+  /**
+   * @return data position of item drawn at this {@code position}, or -1 if no item is drawn there
+   */
+  int resolvePosition(int position, int itemCount) {
+    if (isCyclic && itemCount > 0) {
+      return Math.floorMod(position, itemCount);
+    }
+    return position >= 0 && position < itemCount ? position : -1;
+  }
+
+  /**
+   * @return data position of item which was clicked at {@code clickY}, or -1 if there is no item
+   */
+  int computeClickPosition(float clickY, int drawnCenterY, int currentPosition, int itemCount) {
+    float difference = clickY - drawnCenterY;
+    if (clickY > drawnCenterY) {
+      difference += itemHeight / 2f;
+    } else {
+      difference -= itemHeight / 2f;
+    }
+
+    int position = (int) (difference / itemHeight) + currentPosition;
+    if (isCyclic && itemCount > 0) {
+      position = Math.floorMod(position, itemCount);
+    }
+    return position >= 0 && position < itemCount ? position : -1;
+  }
+
+  /**
+   * @return count of items to scroll from {@code currentPosition} to {@code position}, the shortest way around for a cyclic wheel
+   */
+  int computeItemDifference(int position, int currentPosition, int itemCount) {
+    int itemDifference = position - currentPosition;
+    if (isCyclic && itemCount > 0) {
+      itemDifference = Math.floorMod(itemDifference, itemCount);
+      if (itemDifference > itemCount / 2) {
+        itemDifference -= itemCount;
+      }
+    }
+    return itemDifference;
+  }
+
+  /**
+   * @return {@code position} mapped into data positions for a cyclic wheel or clamped to them otherwise
+   */
+  int clampPosition(int position, int itemCount) {
+    if (isCyclic && itemCount > 0) {
+      position = Math.floorMod(position, itemCount);
+    }
+    position = Math.min(position, itemCount - 1);
+    return Math.max(position, 0);
+  }
+
+  /**
+   * @return {@code scrollOffsetY} with whole turns of a cyclic wheel folded out, so it stays bounded after any amount of scrolling
+   */
+  int normalizeOffset(int scrollOffsetY, int itemCount) {
+    if (!isCyclic || itemCount == 0) {
+      return scrollOffsetY;
+    }
+    long turnHeight = (long) itemCount * itemHeight;
+    return (int) (scrollOffsetY % turnHeight);
+  }
+}
@@ -0,0 +1,87 @@
+package com.minyushov.wheel;
+
+import android.widget.SectionIndexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link SectionIndexer} over sorted section start positions, for {@link WheelPicker#setSectionIndexer(SectionIndexer)}.
+ * Sections can be supplied by caller or derived from item labels.
+ */
+public final class WheelSectionIndexer implements SectionIndexer {
+  private final Object[] sections;
+  private final int[] starts;
+
+  /**
+   * @param sections
+   *   section labels
+   * @param starts
+   *   ascending start positions of sections, one per label
+   */
+  public WheelSectionIndexer(Object[] sections, int[] starts) {
+    if (sections.length != starts.length) {
+      throw new IllegalArgumentException("Each section must have a start position");
+    }
+    this.sections = sections;
+    this.starts = starts;
+  }
+
+  /**
+   * Derive sections from the first letters of item labels, {@code source} must be sorted by label.
+   * Every item is visited once, so for large sources it is better to call it on a background thread.
+   */
+  public static WheelSectionIndexer byFirstLetter(WheelItemSource<?> source) {
+    List<String> sections = new ArrayList<>();
+    int[] starts = new int[16];
+    String previousLetter = null;
+    for (int position = 0; position < source.getSize(); position++) {
+      String label = String.valueOf(source.getItem(position));
+      String letter = label.isEmpty() ? "" : label.substring(0, 1).toUpperCase(Locale.ROOT);
+      if (!letter.equals(previousLetter)) {
+        if (sections.size() == starts.length) {
+          starts = Arrays.copyOf(starts, starts.length * 2);
+        }
+        starts[sections.size()] = position;
+        sections.add(letter);
+        previousLetter = letter;
+      }
+    }
+    return new WheelSectionIndexer(sections.toArray(), Arrays.copyOf(starts, sections.size()));
+  }
+
+  /**
+   * Split {@code itemCount} items into {@code sectionCount} sections of equal size, labeled by their start positions
+   */
+  public static WheelSectionIndexer evenly(int itemCount, int sectionCount) {
+    sectionCount = Math.max(1, Math.min(sectionCount, itemCount));
+    Object[] sections = new Object[sectionCount];
+    int[] starts = new int[sectionCount];
+    for (int section = 0; section < sectionCount; section++) {
+      starts[section] = (int) ((long) itemCount * section / sectionCount);
+      sections[section] = starts[section];
+    }
+    return new WheelSectionIndexer(sections, starts);
+  }
+
+  @Override
+  public Object[] getSections() {
+    return sections;
+  }
+
+  @Override
+  public int getPositionForSection(int section) {
+    if (starts.length == 0) {
+      return 0;
+    }
+    return starts[Math.max(0, Math.min(starts.length - 1, section))];
+  }
+
+  @Override
+  public int getSectionForPosition(int position) {
+    int section = Arrays.binarySearch(starts, position);
+    return section >= 0 ? section : Math.max(0, -section - 2);
+  }
+}
@@ -0,0 +1,409 @@
+package com.minyushov.wheel;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.text.MeasuredText;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import com.sun.management.ThreadMXBean;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Frame cost benchmark of {@link WheelPicker}, skipped unless requested:
+ * <pre>
+ * ./gradlew :wheel-picker:testReleaseUnitTest --tests '*FrameCostBenchmark' -PframeCostBenchmark
+ * </pre>
+ * For every configuration a wheel is laid out, flung by scripted touch events and driven frame by frame through
+ * {@link WheelPicker#run()} and {@link View#draw(Canvas)} into an offscreen bitmap rendered by Robolectric native graphics.
+ * Draw time, draw calls, offscreen layers and allocated bytes of every frame are reported as JSON to
+ * {@code build/reports/benchmark/frame-cost.json}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FrameCostBenchmark {
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 1200;
+  private static final int MAX_FRAMES = 600;
+  private static final long FRAME_INTERVAL_MS = 16;
+  private static final int ICON_SIZE = 48;
+
+  private static final int[] ITEM_COUNTS = {10, 100_000};
+
+  private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private final long[] drawTimes = new long[MAX_FRAMES];
+  private final long[] allocatedBytes = new long[MAX_FRAMES];
+  private final int[] drawCalls = new int[MAX_FRAMES];
+  private final int[] layers = new int[MAX_FRAMES];
+
+  private CountingCanvas canvas;
+
+  @Test
+  public void measureFrameCost() throws IOException, JSONException, InterruptedException {
+    assumeTrue("Run with -PframeCostBenchmark", Boolean.getBoolean("wheel.frameCostBenchmark"));
+
+    canvas = new CountingCanvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+    Bitmap[] icons = {createIcon(Color.RED), createIcon(Color.BLUE)};
+    Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+
+    // Configuration bits: icons, atmospheric, selected color, item count
+    JSONArray results = new JSONArray();
+    for (int configuration = 0; configuration < 8 * ITEM_COUNTS.length; configuration++) {
+      boolean hasIcons = (configuration & 1) != 0;
+      boolean hasAtmospheric = (configuration & 2) != 0;
+      boolean hasSelectedColor = (configuration & 4) != 0;
+      int itemCount = ITEM_COUNTS[configuration / 8];
+
+      TestWheelPicker wheel = createWheel(activity, itemCount, hasIcons ? icons : null, hasAtmospheric, hasSelectedColor);
+      results.put(measure(wheel, itemCount, hasIcons, hasAtmospheric, hasSelectedColor));
+    }
+
+    JSONObject report = new JSONObject();
+    report.put("sdk", Build.VERSION.SDK_INT);
+    report.put("graphics", "robolectric-native");
+    report.put("width", WIDTH);
+    report.put("height", HEIGHT);
+    report.put("results", results);
+    writeReport(report.toString(2));
+  }
+
+  private TestWheelPicker createWheel(Activity activity, int itemCount, Bitmap[] icons, boolean hasAtmospheric, boolean hasSelectedColor) {
+    TestWheelPicker wheel = new TestWheelPicker(activity);
+    wheel.setTextColor(Color.GREEN);
+    wheel.setSelectedTextColor(hasSelectedColor ? Color.RED : Color.GREEN);
+    wheel.setAtmospheric(hasAtmospheric);
+    if (icons != null) {
+      wheel.setDrawableSize(ICON_SIZE);
+    }
+
+    WheelAdapter<String> adapter = new WheelAdapter<>();
+    adapter.setSource(new BenchmarkSource(itemCount, icons));
+    adapter.bind(wheel, itemCount / 2);
+
+    // Wheel is drawn inside a window like in an app, icons decoded in background are delivered by runPendingActions()
+    FrameLayout root = new FrameLayout(activity);
+    root.addView(wheel, new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+    activity.setContentView(root);
+    ShadowLooper.idleMainLooper();
+
+    wheel.measure(
+      View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+      View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    wheel.layout(0, 0, WIDTH, HEIGHT);
+    return wheel;
+  }
+
+  private JSONObject measure(TestWheelPicker wheel, int itemCount, boolean hasIcons, boolean hasAtmospheric, boolean hasSelectedColor)
+    throws JSONException, InterruptedException {
+    // Draw once to request icons, they are decoded in background and must be delivered before measurement
+    wheel.draw(canvas);
+    wheel.runPendingActions();
+    wheel.consumeFrameRequest();
+
+    int frameCount = 0;
+
+    // Scripted fling: fast drag upwards over a fifth of the wheel
+    long downTime = SystemClock.uptimeMillis();
+    float y = HEIGHT * 0.6f;
+    dispatch(wheel, downTime, MotionEvent.ACTION_DOWN, y);
+    for (int i = 0; i < 5; i++) {
+      SystemClock.sleep(FRAME_INTERVAL_MS);
+      wheel.runPendingActions();
+      y -= HEIGHT / 25f;
+      MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_MOVE, WIDTH / 2f, y, 0);
+      long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+      wheel.onTouchEvent(event);
+      drawFrame(wheel, frameCount++, startBytes);
+      event.recycle();
+    }
+    dispatch(wheel, downTime, MotionEvent.ACTION_UP, y);
+
+    // Animation frames until the wheel settles
+    while (frameCount < MAX_FRAMES && wheel.consumeFrameRequest()) {
+      SystemClock.sleep(FRAME_INTERVAL_MS);
+      wheel.runPendingActions();
+      long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+      wheel.run();
+      drawFrame(wheel, frameCount++, startBytes);
+    }
+
+    JSONObject result = new JSONObject();
+    result.put("items", itemCount);
+    result.put("icons", hasIcons);
+    result.put("atmospheric", hasAtmospheric);
+    result.put("selectedColor", hasSelectedColor);
+    result.put("frames", frameCount);
+    result.put("drawTimeNs", statistics(drawTimes, frameCount));
+    result.put("allocatedBytes", statistics(allocatedBytes, frameCount));
+    result.put("drawCallsPerFrame", average(drawCalls, frameCount));
+    result.put("layersPerFrame", average(layers, frameCount));
+    return result;
+  }
+
+  /**
+   * Draw a frame whose input or animation step has already been handled, allocations are counted from {@code startBytes}
+   */
+  private void drawFrame(WheelPicker wheel, int frame, long startBytes) {
+    canvas.drawCalls = 0;
+    canvas.layers = 0;
+    long start = System.nanoTime();
+    wheel.draw(canvas);
+    drawTimes[frame] = System.nanoTime() - start;
+    allocatedBytes[frame] = threadBean.getCurrentThreadAllocatedBytes() - startBytes;
+    drawCalls[frame] = canvas.drawCalls;
+    layers[frame] = canvas.layers;
+  }
+
+  private static void dispatch(WheelPicker wheel, long downTime, int action, float y) {
+    MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, WIDTH / 2f, y, 0);
+    wheel.onTouchEvent(event);
+    event.recycle();
+  }
+
+  private static Bitmap createIcon(int color) {
+    Bitmap icon = Bitmap.createBitmap(ICON_SIZE, ICON_SIZE, Bitmap.Config.ARGB_8888);
+    icon.eraseColor(color);
+    return icon;
+  }
+
+  private static JSONObject statistics(long[] values, int count) throws JSONException {
+    long[] sorted = Arrays.copyOf(values, count);
+    Arrays.sort(sorted);
+
+    long sum = 0;
+    for (long value : sorted) {
+      sum += value;
+    }
+
+    JSONObject statistics = new JSONObject();
+    statistics.put("mean", count > 0 ? sum / count : 0);
+    statistics.put("p50", percentile(sorted, 0.5));
+    statistics.put("p90", percentile(sorted, 0.9));
+    statistics.put("p99", percentile(sorted, 0.99));
+    statistics.put("max", count > 0 ? sorted[count - 1] : 0);
+    return statistics;
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+  }
+
+  private static double average(int[] values, int count) {
+    long sum = 0;
+    for (int i = 0; i < count; i++) {
+      sum += values[i];
+    }
+    return count > 0 ? (double) sum / count : 0;
+  }
+
+  private static void writeReport(String json) throws IOException {
+    File file = new File(System.getProperty("wheel.frameCostReport", "frame-cost.json"));
+    File directory = file.getAbsoluteFile().getParentFile();
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Unable to create " + directory);
+    }
+    try (Writer writer = new FileWriter(file)) {
+      writer.write(json);
+    }
+  }
+
+  private static final class BenchmarkSource implements WheelItemSource<String> {
+    private final int size;
+    private final Bitmap[] icons;
+
+    BenchmarkSource(int size, Bitmap[] icons) {
+      this.size = size;
+      this.icons = icons;
+    }
+
+    @Override
+    public int getSize() {
+      return size;
+    }
+
+    @Override
+    public WheelItem<String> getItem(int position) {
+      if (icons != null) {
+        return new WheelItem<>("Item " + position, icons[position % icons.length]);
+      }
+      return new WheelItem<>("Item " + position);
+    }
+  }
+
+  /**
+   * Canvas which counts draw calls and offscreen layers issued by the wheel
+   */
+  private static final class CountingCanvas extends Canvas {
+    int drawCalls;
+    int layers;
+
+    CountingCanvas(Bitmap bitmap) {
+      super(bitmap);
+    }
+
+    @Override
+    public int saveLayer(RectF bounds, Paint paint) {
+      layers++;
+      return super.saveLayer(bounds, paint);
+    }
+
+    @Override
+    public int saveLayer(float left, float top, float right, float bottom, Paint paint) {
+      layers++;
+      return super.saveLayer(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public int saveLayerAlpha(RectF bounds, int alpha) {
+      layers++;
+      return super.saveLayerAlpha(bounds, alpha);
+    }
+
+    @Override
+    public int saveLayerAlpha(float left, float top, float right, float bottom, int alpha) {
+      layers++;
+      return super.saveLayerAlpha(left, top, right, bottom, alpha);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+      drawCalls++;
+      super.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+      drawCalls++;
+      super.drawText(text, start, end, x, y, paint);
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+      drawCalls++;
+      super.drawText(text, index, count, x, y, paint);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+      drawCalls++;
+      super.drawText(text, start, end, x, y, paint);
+    }
+
+    @Override
+    public void drawTextRun(char[] text, int index, int count, int contextIndex, int contextCount, float x, float y, boolean isRtl, Paint paint) {
+      drawCalls++;
+      super.drawTextRun(text, index, count, contextIndex, contextCount, x, y, isRtl, paint);
+    }
+
+    @Override
+    public void drawTextRun(CharSequence text, int start, int end, int contextStart, int contextEnd, float x, float y, boolean isRtl, Paint paint) {
+      drawCalls++;
+      super.drawTextRun(text, start, end, contextStart, contextEnd, x, y, isRtl, paint);
+    }
+
+    @Override
+    public void drawTextRun(MeasuredText text, int start, int end, int contextStart, int contextEnd, float x, float y, boolean isRtl, Paint paint) {
+      drawCalls++;
+      super.drawTextRun(text, start, end, contextStart, contextEnd, x, y, isRtl, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+      drawCalls++;
+      super.drawBitmap(bitmap, left, top, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+      drawCalls++;
+      super.drawBitmap(bitmap, src, dst, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+      drawCalls++;
+      super.drawBitmap(bitmap, src, dst, paint);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+      drawCalls++;
+      super.drawBitmap(bitmap, matrix, paint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+      drawCalls++;
+      super.drawRect(left, top, right, bottom, paint);
+    }
+
+    @Override
+    public void drawRect(Rect rect, Paint paint) {
+      drawCalls++;
+      super.drawRect(rect, paint);
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+      drawCalls++;
+      super.drawRect(rect, paint);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+      drawCalls++;
+      super.drawLine(startX, startY, stopX, stopY, paint);
+    }
+
+    @Override
+    public void drawPaint(Paint paint) {
+      drawCalls++;
+      super.drawPaint(paint);
+    }
+
+    @Override
+    public void drawColor(int color) {
+      drawCalls++;
+      super.drawColor(color);
+    }
+
+    @Override
+    public void drawColor(int color, PorterDuff.Mode mode) {
+      drawCalls++;
+      super.drawColor(color, mode);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.minyushov.wheel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link PrefixIndex} kept up to date in place finds the same items as an index built from scratch
+ */
+public class PrefixIndexTest {
+  private static final String[] PREFIXES = {"a", "ap", "b", "bl", "c", "d", "da", "e", "z"};
+
+  private final List<WheelItem<String>> items = new ArrayList<>();
+  private final ListItemSource<String> source = new ListItemSource<>(items);
+  private PrefixIndex index;
+
+  @Before
+  public void setUp() {
+    add(0, "Apple", "cherry", "Elderberry");
+    index = PrefixIndex.build(items.toArray());
+  }
+
+  @Test
+  public void findsFirstItemInAlphabeticalOrderIgnoringCase() {
+    add(3, "apricot");
+    index = PrefixIndex.build(items.toArray());
+
+    assertEquals(0, index.find("A"));
+    assertEquals(3, index.find("apr"));
+    assertEquals(1, index.find("CHE"));
+    assertEquals(-1, index.find("f"));
+  }
+
+  @Test
+  public void insertedRangeIsIndexed() {
+    add(1, "banana", "Blueberry");
+    index.onRangeInserted(source, 1, 2);
+
+    assertEquals(1, index.find("b"));
+    assertEquals(2, index.find("bl"));
+    assertEquals(3, index.find("c"));
+    assertSameAsRebuilt();
+  }
+
+  @Test
+  public void removedRangeIsDropped() {
+    items.subList(0, 2).clear();
+    index.onRangeRemoved(0, 2);
+
+    assertEquals(-1, index.find("a"));
+    assertEquals(0, index.find("e"));
+    assertSameAsRebuilt();
+  }
+
+  @Test
+  public void changedRangeIsReindexed() {
+    items.set(1, new WheelItem<>("date"));
+    items.set(2, new WheelItem<>("Zucchini"));
+    index.onRangeChanged(source, 1, 2);
+
+    assertEquals(-1, index.find("c"));
+    assertEquals(1, index.find("d"));
+    assertEquals(2, index.find("z"));
+    assertSameAsRebuilt();
+  }
+
+  @Test
+  public void changesAreAppliedInSequence() {
+    add(0, "damson");
+    index.onRangeInserted(source, 0, 1);
+    items.remove(2);
+    index.onRangeRemoved(2, 1);
+    items.set(0, new WheelItem<>("blackberry"));
+    index.onRangeChanged(source, 0, 1);
+    add(3, "apricot", "Date");
+    index.onRangeInserted(source, 3, 2);
+
+    assertSameAsRebuilt();
+  }
+
+  private void add(int position, String... labels) {
+    for (int i = 0; i < labels.length; i++) {
+      items.add(position + i, new WheelItem<>(labels[i]));
+    }
+  }
+
+  private void assertSameAsRebuilt() {
+    PrefixIndex rebuilt = PrefixIndex.build(source);
+    for (String prefix : PREFIXES) {
+      assertEquals("Position of prefix " + prefix, rebuilt.find(prefix), index.find(prefix));
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package com.minyushov.wheel;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link WheelPicker} whose animation frames are driven by a test through {@link #run()} instead of the display frame clock,
+ * and whose posted actions, e.g. loaded icons, are run by {@link #runPendingActions()}
+ */
+final class TestWheelPicker extends WheelPicker {
+  private final List<Runnable> pendingActions = new ArrayList<>();
+  private boolean isFrameRequested;
+
+  TestWheelPicker(Context context) {
+    super(context);
+  }
+
+  @Override
+  public void postOnAnimation(Runnable action) {
+    isFrameRequested = true;
+  }
+
+  @Override
+  public boolean post(Runnable action) {
+    synchronized (pendingActions) {
+      pendingActions.add(action);
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the wheel has requested an animation frame since the last call
+   */
+  boolean consumeFrameRequest() {
+    boolean requested = isFrameRequested;
+    isFrameRequested = false;
+    return requested;
+  }
+
+  /**
+   * Wait until background work queued so far is done, then run actions it has posted to the wheel
+   */
+  void runPendingActions() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    WheelExecutors.background().execute(latch::countDown);
+    if (!latch.await(10, TimeUnit.SECONDS)) {
+      throw new IllegalStateException("Background work has not finished");
+    }
+
+    Runnable[] actions;
+    synchronized (pendingActions) {
+      actions = pendingActions.toArray(new Runnable[0]);
+      pendingActions.clear();
+    }
+    for (Runnable action : actions) {
+      action.run();
+    }
+  }
+}
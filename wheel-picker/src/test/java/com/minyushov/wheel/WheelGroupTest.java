@@ -0,0 +1,77 @@
+package com.minyushov.wheel;
+
+import android.os.Parcelable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that selection changes of an upstream wheel reach dependencies of {@link WheelGroup}
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class WheelGroupTest {
+  private static final int ITEM_COUNT = 20;
+
+  private WheelAdapter<String> upstream;
+  private TestWheelPicker upstreamWheel;
+  private int upstreamPosition;
+
+  @Before
+  public void setUp() {
+    upstream = createAdapter();
+    WheelAdapter<String> downstream = createAdapter();
+    WheelGroup group = new WheelGroup();
+    group.addDependency(downstream, (adapter, upstreamPositions) -> upstreamPosition = upstreamPositions[0], upstream);
+
+    upstreamWheel = new TestWheelPicker(RuntimeEnvironment.getApplication());
+    upstream.bind(upstreamWheel, 0);
+    downstream.bind(new TestWheelPicker(RuntimeEnvironment.getApplication()), 0);
+    group.update();
+  }
+
+  @Test
+  public void selectionWithoutAnimationIsDispatched() {
+    upstream.setSelectedItemPosition(5, false);
+    assertEquals(5, upstreamPosition);
+  }
+
+  @Test
+  public void selectionWhileScrollingIsDispatched() {
+    upstream.setSelectedItemPosition(5, true);
+    assertEquals("Animated selection is dispatched once the wheel settles", 0, upstreamPosition);
+
+    upstream.setSelectedItemPosition(7, true);
+    assertEquals(7, upstreamPosition);
+  }
+
+  @Test
+  public void restoredSelectionIsDispatched() {
+    TestWheelPicker savedWheel = new TestWheelPicker(RuntimeEnvironment.getApplication());
+    createAdapter().bind(savedWheel, 9);
+    Parcelable state = savedWheel.onSaveInstanceState();
+
+    upstreamWheel.onRestoreInstanceState(state);
+    assertEquals(9, upstream.getCurrentItemPosition());
+    assertEquals(9, upstreamPosition);
+  }
+
+  private static WheelAdapter<String> createAdapter() {
+    List<WheelItem<String>> items = new ArrayList<>(ITEM_COUNT);
+    for (int position = 0; position < ITEM_COUNT; position++) {
+      items.add(new WheelItem<>("Item " + position));
+    }
+    WheelAdapter<String> adapter = new WheelAdapter<>();
+    adapter.setData(items);
+    return adapter;
+  }
+}
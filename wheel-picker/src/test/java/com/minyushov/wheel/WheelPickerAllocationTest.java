@@ -0,0 +1,242 @@
+package com.minyushov.wheel;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that scroll frames of {@link WheelPicker}, i.e. ACTION_MOVE during a drag and {@link WheelPicker#run()} during
+ * a fling, each followed by a draw, allocate nothing, including frames which request icons of rows coming into view.
+ * Allocations of the test thread are counted by the JVM, icons are loaded and applied between frames.
+ * Labels are taken from {@link Object#toString()} of item data once per row coming into view, so data which builds a new
+ * string there allocates it, and text layouts of {@link WheelPicker#setPrecomputedTextEnabled(boolean)} are built per row.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class WheelPickerAllocationTest {
+  private static final int WIDTH = 480;
+  private static final int HEIGHT = 800;
+  private static final int ITEM_COUNT = 1000;
+  private static final int MAX_FRAMES = 600;
+  private static final long FRAME_INTERVAL_MS = 16;
+  private static final int ICON_SIZE = 48;
+
+  private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+  private final long[] frameBytes = new long[MAX_FRAMES];
+
+  private Canvas canvas;
+  private long measurementBytes;
+  private int scrollState;
+
+  @Before
+  public void setUp() {
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+    canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+    // Bytes which reading the counter itself may allocate
+    measurementBytes = Long.MAX_VALUE;
+    for (int i = 0; i < 10; i++) {
+      long start = threadBean.getCurrentThreadAllocatedBytes();
+      measurementBytes = Math.min(measurementBytes, threadBean.getCurrentThreadAllocatedBytes() - start);
+    }
+  }
+
+  @Test
+  public void textFramesDoNotAllocate() throws InterruptedException {
+    TestWheelPicker wheel = createWheel();
+    createTextAdapter().bind(wheel, ITEM_COUNT / 2);
+    assertScrollFramesDoNotAllocate(wheel);
+  }
+
+  @Test
+  public void atmosphericFramesWithSelectedColorDoNotAllocate() throws InterruptedException {
+    TestWheelPicker wheel = createWheel();
+    wheel.setAtmospheric(true);
+    wheel.setTextColor(Color.GRAY);
+    wheel.setSelectedTextColor(Color.BLACK);
+    createTextAdapter().bind(wheel, ITEM_COUNT / 2);
+    assertScrollFramesDoNotAllocate(wheel);
+  }
+
+  @Test
+  public void cachedRowFramesDoNotAllocate() throws InterruptedException {
+    TestWheelPicker wheel = createWheel();
+    wheel.setRowCacheEnabled(true);
+    createTextAdapter().bind(wheel, ITEM_COUNT / 2);
+    assertScrollFramesDoNotAllocate(wheel);
+  }
+
+  @Test
+  public void iconFramesDoNotAllocate() throws InterruptedException {
+    Bitmap[] icons = {
+      Bitmap.createBitmap(ICON_SIZE, ICON_SIZE, Bitmap.Config.ARGB_8888),
+      Bitmap.createBitmap(ICON_SIZE, ICON_SIZE, Bitmap.Config.ARGB_8888)
+    };
+    icons[0].eraseColor(Color.BLACK);
+    icons[1].eraseColor(Color.GRAY);
+
+    List<WheelItem<String>> items = new ArrayList<>(ITEM_COUNT);
+    for (int position = 0; position < ITEM_COUNT; position++) {
+      items.add(new WheelItem<>("Item " + position, icons[position % icons.length]));
+    }
+    WheelAdapter<String> adapter = new WheelAdapter<>();
+    adapter.setData(items);
+
+    TestWheelPicker wheel = createWheel();
+    wheel.setDrawableSize(ICON_SIZE);
+    adapter.bind(wheel, ITEM_COUNT / 2);
+    assertScrollFramesDoNotAllocate(wheel);
+  }
+
+  @Test
+  public void nonStringFramesDoNotAllocate() throws InterruptedException {
+    List<WheelItem<Country>> items = new ArrayList<>(ITEM_COUNT);
+    for (int position = 0; position < ITEM_COUNT; position++) {
+      items.add(new WheelItem<>(new Country("Country " + position)));
+    }
+    WheelAdapter<Country> adapter = new WheelAdapter<>();
+    adapter.setData(items);
+
+    TestWheelPicker wheel = createWheel();
+    adapter.bind(wheel, ITEM_COUNT / 2);
+    assertScrollFramesDoNotAllocate(wheel);
+  }
+
+  @Test
+  public void numberRangeFramesDoNotAllocate() throws InterruptedException {
+    TestWheelPicker wheel = createWheel();
+    WheelAdapter<Integer> adapter = new WheelAdapter<>();
+    adapter.setSource(new NumberRangeSource(0, 100_000));
+    adapter.bind(wheel, 50_000);
+    assertScrollFramesDoNotAllocate(wheel);
+  }
+
+  private TestWheelPicker createWheel() {
+    TestWheelPicker wheel = new TestWheelPicker(RuntimeEnvironment.getApplication());
+    wheel.setOnWheelChangeListener(new WheelPicker.OnWheelChangeListener() {
+      @Override
+      public void onWheelScrolled(int offset) {
+      }
+
+      @Override
+      public void onWheelSelected(int position) {
+      }
+
+      @Override
+      public void onWheelScrollStateChanged(int state) {
+        scrollState = state;
+      }
+    });
+    return wheel;
+  }
+
+  private static WheelAdapter<String> createTextAdapter() {
+    List<WheelItem<String>> items = new ArrayList<>(ITEM_COUNT);
+    for (int position = 0; position < ITEM_COUNT; position++) {
+      items.add(new WheelItem<>("Item " + position));
+    }
+    WheelAdapter<String> adapter = new WheelAdapter<>();
+    adapter.setData(items);
+    return adapter;
+  }
+
+  private void assertScrollFramesDoNotAllocate(TestWheelPicker wheel) throws InterruptedException {
+    wheel.measure(
+      View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+      View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+    wheel.layout(0, 0, WIDTH, HEIGHT);
+    wheel.draw(canvas);
+    wheel.runPendingActions();
+
+    // First fling loads classes, links call sites and fills caches, only the second one is checked
+    fling(wheel);
+    int frameCount = fling(wheel);
+
+    for (int frame = 0; frame < frameCount; frame++) {
+      assertEquals("Bytes allocated by frame " + frame + " of " + frameCount, 0, frameBytes[frame]);
+    }
+  }
+
+  /**
+   * Drag the wheel upwards and let it settle, every drag and animation frame is drawn
+   *
+   * @return count of frames, bytes allocated by every frame are in {@link #frameBytes}
+   */
+  private int fling(TestWheelPicker wheel) throws InterruptedException {
+    long downTime = SystemClock.uptimeMillis();
+    float y = HEIGHT * 0.6f;
+    dispatch(wheel, downTime, MotionEvent.ACTION_DOWN, y);
+
+    int frameCount = 0;
+    for (int i = 0; i < 5; i++) {
+      SystemClock.sleep(FRAME_INTERVAL_MS);
+      wheel.runPendingActions();
+      y -= HEIGHT / 25f;
+      MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), MotionEvent.ACTION_MOVE, WIDTH / 2f, y, 0);
+
+      long start = threadBean.getCurrentThreadAllocatedBytes();
+      wheel.onTouchEvent(event);
+      wheel.draw(canvas);
+      frameBytes[frameCount++] = threadBean.getCurrentThreadAllocatedBytes() - start - measurementBytes;
+
+      event.recycle();
+    }
+    dispatch(wheel, downTime, MotionEvent.ACTION_UP, y);
+
+    while (frameCount < MAX_FRAMES && wheel.consumeFrameRequest()) {
+      SystemClock.sleep(FRAME_INTERVAL_MS);
+      wheel.runPendingActions();
+
+      long start = threadBean.getCurrentThreadAllocatedBytes();
+      wheel.run();
+      wheel.draw(canvas);
+      frameBytes[frameCount++] = threadBean.getCurrentThreadAllocatedBytes() - start - measurementBytes;
+    }
+
+    assertEquals("Wheel has not settled", WheelPicker.SCROLL_STATE_IDLE, scrollState);
+    return frameCount;
+  }
+
+  private static void dispatch(WheelPicker wheel, long downTime, int action, float y) {
+    MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, WIDTH / 2f, y, 0);
+    wheel.onTouchEvent(event);
+    event.recycle();
+  }
+
+  /**
+   * Data which is not a string, its label is built once
+   */
+  private static final class Country {
+    private final String name;
+
+    Country(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}